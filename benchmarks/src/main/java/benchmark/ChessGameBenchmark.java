@@ -0,0 +1,77 @@
+package benchmark;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rules-engine costs paid on every MAKE_MOVE: per-piece validation, making a move,
+ * recomputing the game status, and copying and hashing boards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessGameBenchmark {
+
+    @Param({
+            Fen.START,
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+    })
+    public String fen;
+
+    private ChessGame game;
+    private List<ChessPosition> ownPieces;
+    private ChessMove firstMove;
+
+    @Setup
+    public void setUp() {
+        game = Fen.parse(fen);
+        ownPieces = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    ownPieces.add(new ChessPosition(row, col));
+                }
+            }
+        }
+        firstMove = game.legalMoves().iterator().next();
+    }
+
+    /** What a client asking for highlights on every piece costs the server. */
+    @Benchmark
+    public void validMovesAllPieces(Blackhole blackhole) {
+        for (ChessPosition position : ownPieces) {
+            blackhole.consume(game.validMoves(position));
+        }
+    }
+
+    @Benchmark
+    public Object legalMoves() { return game.legalMoves(); }
+
+    /** Validated makeMove, taken back so every invocation starts from the same position. */
+    @Benchmark
+    public void makeMove() throws InvalidMoveException {
+        game.makeMove(firstMove);
+        game.unmakeMove();
+    }
+
+    @Benchmark
+    public ChessGame.Status updateStatusAfterMove() {
+        game.updateStatusAfterMove();
+        return game.getStatus();
+    }
+
+    @Benchmark
+    public ChessBoard boardCopy() { return game.getBoard().copy(); }
+
+    @Benchmark
+    public int boardHashCode() { return game.getBoard().hashCode(); }
+}
@@ -0,0 +1,72 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import dataaccess.*;
+import model.AuthData;
+import model.GameData;
+import org.openjdk.jmh.annotations.*;
+import service.MoveService;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.NotificationMessage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One MAKE_MOVE as WebSocketHandler.handleMove performs it, minus the socket writes:
+ * auth lookup, game lookup, {@link MoveService#makeMove} (validation, makeMove, status
+ * update and persistence) and the LOAD_GAME and notification serialization, against the
+ * in-memory DAOs.
+ * <p>
+ * The knights shuffle out and back so the game cycles through the same four positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovePipelineBenchmark {
+
+    private static final int GAME_ID = 1;
+    private static final String[] TOKENS = {"white-token", "black-token"};
+    private static final ChessMove[] CYCLE = {
+            new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+            new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+            new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+            new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null)
+    };
+
+    private final Gson gson = new Gson();
+    private AuthDAO authDAO;
+    private GameDAO gameDAO;
+    private MoveService moveService;
+    private int ply;
+
+    @Setup
+    public void setUp() throws DataAccessException {
+        authDAO = new AuthMemory();
+        gameDAO = new GameMemory();
+        moveService = new MoveService(gameDAO);
+        authDAO.insertAuth(new AuthData(TOKENS[0], "white"));
+        authDAO.insertAuth(new AuthData(TOKENS[1], "black"));
+        gameDAO.insertGame(new GameData(GAME_ID, "white", "black", "benchmark", new ChessGame()));
+    }
+
+    @Benchmark
+    public String handleMove() throws DataAccessException, InvalidMoveException {
+        ChessMove move = CYCLE[ply & 3];
+        String username = authDAO.getAuthByToken(TOKENS[ply & 1]).orElseThrow().username();
+        GameData game = gameDAO.getGameById(GAME_ID).orElseThrow();
+        ply++;
+
+        GameData moved = moveService.makeMove(game, username, move);
+
+        String loadJson = gson.toJson(new LoadGameMessage(moved));
+        String notification = gson.toJson(new NotificationMessage(username + " moved from " + move.printMove()));
+        return loadJson + notification;
+    }
+}
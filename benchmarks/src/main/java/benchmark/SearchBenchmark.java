@@ -0,0 +1,59 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.search.Search;
+import chess.search.SearchLimits;
+import chess.search.SearchResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth searches as a bot move would run them. Nodes per second is the number to
+ * compare across engine changes; the visited node count is reported alongside the time
+ * so pruning gains and raw speed gains can be told apart.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"
+    })
+    public String fen;
+
+    @Param({"5"})
+    public int depth;
+
+    private ChessGame game;
+    private Search search;
+
+    @Setup
+    public void setUp() {
+        game = Fen.parse(fen);
+        search = new Search();
+    }
+
+    @Benchmark
+    public SearchResult fixedDepth(NodeCounters counters) {
+        SearchResult result = search.search(game, SearchLimits.depth(depth));
+        counters.nodes += result.nodes();
+        return result;
+    }
+
+    /** Reports the nodes visited per operation as a secondary JMH result. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class NodeCounters {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() { nodes = 0; }
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.Fen;
+import com.google.gson.Gson;
+import model.GameData;
+import org.openjdk.jmh.annotations.*;
+import websocket.messages.LoadGameMessage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson costs on the game path: the DAO writes and reads the ChessGame JSON column,
+ * and every LOAD_GAME carries the whole GameData.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private final Gson gson = new Gson();
+    private ChessGame game;
+    private GameData gameData;
+    private String gameJson;
+    private String gameDataJson;
+
+    @Setup
+    public void setUp() {
+        game = Fen.parse("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        gameData = new GameData(1, "white", "black", "benchmark", game);
+        gameJson = gson.toJson(game);
+        gameDataJson = gson.toJson(gameData);
+    }
+
+    @Benchmark
+    public String chessGameToJson() { return gson.toJson(game); }
+
+    @Benchmark
+    public ChessGame chessGameFromJson() { return gson.fromJson(gameJson, ChessGame.class); }
+
+    @Benchmark
+    public String gameDataToJson() { return gson.toJson(gameData); }
+
+    @Benchmark
+    public GameData gameDataFromJson() { return gson.fromJson(gameDataJson, GameData.class); }
+
+    @Benchmark
+    public String loadGameMessageToJson() { return gson.toJson(new LoadGameMessage(gameData)); }
+}
@@ -0,0 +1,4 @@
+package benchmark.jmh_generated;
+public class ChessGameBenchmark_jmhType extends ChessGameBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package benchmark.jmh_generated;
+public class MovePipelineBenchmark_jmhType extends MovePipelineBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package benchmark.jmh_generated;
+public class SearchBenchmark_NodeCounters_jmhType extends SearchBenchmark_NodeCounters_jmhType_B3 {
+}
+
@@ -34,7 +34,7 @@ public class BoardDrawer {
                 int col = whitePerspective ? i + 1 : 8 - i;
                 boolean isDark = (row + col) % 2 == 0;
 
-                ChessPosition currentPos = new ChessPosition(row, col);
+                ChessPosition currentPos = ChessPosition.of(row, col);
                 String bgColor;
 
                 if (highlights != null && currentPos.equals(selected)) {
@@ -56,7 +56,7 @@ public class BoardDrawer {
     }
 
     private static String getPieceSymbol(ChessGame game, int row, int col) {
-        ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, col));
+        ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, col));
         if (piece == null) {
             return EscapeSequences.EMPTY;
         }
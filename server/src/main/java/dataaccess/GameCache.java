@@ -0,0 +1,254 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Keeps games that are being played in memory, in front of the DAO that stores them. The
+ * cached GameData is the authoritative copy: reads are answered from memory, so a move no
+ * longer pays a database round trip and a JSON parse to load the game.
+ * <p>
+ * {@link #getGameById} hands out that live copy, so it is meant for the game's single writer
+ * (its GameExecutor mailbox). Everyone else reads a snapshot: {@link #getAllGames} returns the
+ * copy taken when the game was loaded or last updated, which nothing changes afterwards.
+ * <p>
+ * Updates are written behind. An update takes a snapshot of the game and queues it under
+ * the game's ID, replacing any snapshot still waiting, so a burst of moves in one game costs
+ * a single write. The queue is flushed in one {@link GameDAO#updateGames batch} every flush
+ * interval, or sooner once it holds a batch's worth of games. Updates matching the
+ * write-through condition (by default, any update that ends the game, resignation included)
+ * are written before {@link #updateGame} returns. Backend writes are serialised, so a queued
+ * snapshot can never land after a newer game state.
+ * <p>
+ * A game is loaded on first use and dropped once nobody has read or written it for the idle
+ * timeout, unless it still has a write queued. {@link #close()} flushes whatever is queued.
+ */
+public class GameCache implements GameDAO, AutoCloseable {
+
+    private static final long DEFAULT_FLUSH_MILLIS = 250;
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+    private static final class Entry {
+        final GameData game;
+        /** Copy of {@link #game} as of the last load or update, never changed. */
+        final GameData snapshot;
+        volatile long lastUsed;
+
+        Entry(GameData game, GameData snapshot, long now) {
+            this.game = game;
+            this.snapshot = snapshot;
+            this.lastUsed = now;
+        }
+    }
+
+    private final GameDAO backend;
+    private final long idleNanos;
+    private final int batchSize;
+    private final Predicate<GameData> writeThrough;
+    private final ConcurrentHashMap<Integer, Entry> games = new ConcurrentHashMap<>();
+    /** Snapshots waiting to be written, at most one per game. */
+    private final ConcurrentHashMap<Integer, GameData> pending = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ScheduledExecutorService writer;
+
+    /** A cache that flushes every 250 ms or 64 games and writes finished games through. */
+    public GameCache(GameDAO backend, long idleTimeout, TimeUnit unit) {
+        this(backend, idleTimeout, unit, DEFAULT_FLUSH_MILLIS, DEFAULT_BATCH_SIZE, GameCache::isFinished);
+    }
+
+    /**
+     * @param backend      DAO that stores the games
+     * @param idleTimeout  how long a game may go unused before it is evicted
+     * @param flushMillis  longest a queued update waits before it is written
+     * @param batchSize    queued games that trigger an early flush
+     * @param writeThrough updates that must be stored before {@link #updateGame} returns
+     */
+    public GameCache(GameDAO backend, long idleTimeout, TimeUnit unit, long flushMillis, int batchSize,
+                     Predicate<GameData> writeThrough) {
+        this.backend = backend;
+        this.idleNanos = unit.toNanos(idleTimeout);
+        this.batchSize = batchSize;
+        this.writeThrough = writeThrough;
+        this.writer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "game-cache-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepPeriod = Math.max(1, idleNanos / 2);
+        writer.scheduleWithFixedDelay(() -> evictIdle(System.nanoTime()), sweepPeriod, sweepPeriod, TimeUnit.NANOSECONDS);
+        writer.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** @return true once the game has ended, by mate, stalemate or resignation */
+    public static boolean isFinished(GameData game) {
+        if (game.game() == null) {
+            return false;
+        }
+        ChessGame.Status status = game.game().getStatus();
+        return status != ChessGame.Status.ONGOING && status != ChessGame.Status.CHECK;
+    }
+
+    @Override
+    public int insertGame(GameData game) throws DataAccessException { return backend.insertGame(game); }
+
+    @Override
+    public Optional<GameData> getGameById(Integer gameId) throws DataAccessException {
+        if (gameId == null) { throw new BadRequestException(); }
+        long now = System.nanoTime();
+        Entry entry = games.get(gameId);
+        if (entry != null) {
+            entry.lastUsed = now;
+            return Optional.of(entry.game);
+        }
+
+        Optional<GameData> loaded = backend.getGameById(gameId);
+        if (loaded.isEmpty()) {
+            return loaded;
+        }
+        // Another thread may have loaded the game meanwhile; its copy wins so there is only one.
+        entry = games.putIfAbsent(gameId, new Entry(loaded.get(), loaded.get().copy(), now));
+        return entry == null ? loaded : Optional.of(entry.game);
+    }
+
+    /** Lists the stored games, with a snapshot of the cached copy standing in for any game held here. */
+    @Override
+    public List<GameData> getAllGames() throws DataAccessException {
+        List<GameData> stored = backend.getAllGames();
+        List<GameData> current = new ArrayList<>(stored.size());
+        for (GameData game : stored) {
+            Entry entry = games.get(game.gameID());
+            current.add(entry != null ? entry.snapshot : game);
+        }
+        return current;
+    }
+
+    /**
+     * Makes the game the current copy and queues it to be stored, or stores it straight away
+     * if it matches the write-through condition. A write-through that fails is queued instead,
+     * so the next flush retries it and the game stays in memory until it is stored.
+     *
+     * @throws BadRequestException if a write-through finds the game no longer exists
+     */
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        if (game == null) { throw new BadRequestException(); }
+        // The live ChessGame keeps changing after this call, so readers and the writer share a copy.
+        GameData snapshot = game.copy();
+        games.put(game.gameID(), new Entry(game, snapshot, System.nanoTime()));
+
+        if (writeThrough.test(game)) {
+            synchronized (writeLock) {
+                pending.remove(game.gameID());
+                try {
+                    backend.updateGame(snapshot);
+                } catch (BadRequestException e) {
+                    games.remove(game.gameID());
+                    throw e;
+                } catch (DataAccessException e) {
+                    // The game has ended and will not be updated again; only a retry can store it.
+                    pending.putIfAbsent(game.gameID(), snapshot);
+                    System.out.println("Game write-through failed, will retry: " + e.getMessage());
+                }
+            }
+            return;
+        }
+
+        pending.put(game.gameID(), snapshot);
+        if (pending.size() >= batchSize && flushQueued.compareAndSet(false, true)) {
+            writer.execute(() -> {
+                flushQueued.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        synchronized (writeLock) {
+            pending.clear();
+            games.clear();
+            backend.clear();
+        }
+    }
+
+    /**
+     * Writes every queued update now. A batch that fails is retried game by game; games the
+     * backend no longer has are dropped, and other failures stay queued for the next flush.
+     *
+     * @throws DataAccessException if any queued update could not be written
+     */
+    public void flush() throws DataAccessException {
+        synchronized (writeLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<GameData> batch = new ArrayList<>(pending.values());
+            try {
+                backend.updateGames(batch);
+                for (GameData game : batch) {
+                    pending.remove(game.gameID(), game);
+                }
+                return;
+            } catch (DataAccessException e) {
+                // Fall through and find out which games failed.
+            }
+
+            DataAccessException failure = null;
+            for (GameData game : batch) {
+                try {
+                    backend.updateGame(game);
+                    pending.remove(game.gameID(), game);
+                } catch (BadRequestException e) {
+                    pending.remove(game.gameID(), game);
+                } catch (DataAccessException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /** @return the number of games currently held in memory */
+    public int size() { return games.size(); }
+
+    /** @return the number of games with an update not yet written */
+    public int pendingWrites() { return pending.size(); }
+
+    /** Drops the games unused since {@code now} minus the idle timeout; {@code now} is a {@link System#nanoTime()}. */
+    void evictIdle(long now) {
+        for (Map.Entry<Integer, Entry> e : games.entrySet()) {
+            if (now - e.getValue().lastUsed >= idleNanos && !pending.containsKey(e.getKey())) {
+                games.remove(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            System.out.println("Game write-behind failed, will retry: " + e.getMessage());
+        }
+    }
+
+    /** Stops the background writer and writes whatever is still queued. */
+    @Override
+    public void close() {
+        writer.shutdownNow();
+        flushQuietly();
+    }
+}
@@ -1,6 +1,7 @@
 package dataaccess;
 
 import model.GameData;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +11,13 @@ public interface GameDAO {
     Optional<GameData> getGameById(Integer gameId) throws DataAccessException;
     List<GameData> getAllGames() throws DataAccessException;
     void updateGame(GameData game) throws DataAccessException;
+
+    /** Saves several games at once; backends that can batch the writes override this. */
+    default void updateGames(Collection<GameData> games) throws DataAccessException {
+        for (GameData game : games) {
+            updateGame(game);
+        }
+    }
     void clear() throws DataAccessException;
 
 }
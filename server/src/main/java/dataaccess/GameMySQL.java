@@ -7,6 +7,7 @@ import chess.ChessGame;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -152,6 +153,42 @@ public class GameMySQL implements GameDAO {
         }
     }
 
+    /** Writes all the games in one JDBC batch and transaction; if any game is missing, none are written. */
+    @Override
+    public void updateGames(Collection<GameData> games) throws DataAccessException {
+        String sql = "UPDATE game SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ? WHERE gameID = ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            conn.setAutoCommit(false);
+            try {
+                for (GameData game : games) {
+                    stmt.setString(1, game.whiteUsername());
+                    stmt.setString(2, game.blackUsername());
+                    stmt.setString(3, game.gameName());
+                    stmt.setString(4, gson.toJson(game.game()));
+                    stmt.setInt(5, game.gameID());
+                    stmt.addBatch();
+                }
+                for (int rows : stmt.executeBatch()) {
+                    if (rows == 0) {
+                        // Nothing was written, so a retry game by game does not write the others twice.
+                        conn.rollback();
+                        throw new BadRequestException("Game does not exist");
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            throw new DataAccessException("Error updating games", e);
+        }
+    }
+
     @Override
     public void clear() throws DataAccessException {
         try (Connection conn = DatabaseManager.getConnection();
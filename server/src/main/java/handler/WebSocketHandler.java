@@ -7,10 +7,12 @@ import com.google.gson.Gson;
 import dataaccess.*;
 import io.javalin.websocket.*;
 import model.*;
+import service.BotService;
+import service.GameExecutor;
+import service.MoveService;
 import websocket.commands.*;
 import websocket.messages.*;
 
-import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -20,12 +22,23 @@ public class WebSocketHandler {
     private final Gson gson;
     private final AuthDAO authDAO;
     private final GameDAO gameDAO;
+    private final MoveService moveService;
+    private final BotService botService;
+    private final GameExecutor gameExecutor;
     private final ConcurrentHashMap<Integer, Set<WsContext>> gameConnections = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, LoadGamePayload> loadGamePayloads = new ConcurrentHashMap<>();
 
-    public WebSocketHandler(Gson gson, AuthDAO authDAO, GameDAO gameDAO) {
+    /** A game's LOAD_GAME message as sent, together with the GameData it was encoded from. */
+    private record LoadGamePayload(GameData game, String json) {}
+
+    public WebSocketHandler(Gson gson, AuthDAO authDAO, GameDAO gameDAO, MoveService moveService,
+                            BotService botService, GameExecutor gameExecutor) {
         this.gson = gson;
         this.authDAO = authDAO;
         this.gameDAO = gameDAO;
+        this.moveService = moveService;
+        this.botService = botService;
+        this.gameExecutor = gameExecutor;
     }
 
     public void configureWs(io.javalin.websocket.WsConfig ws) {
@@ -42,13 +55,30 @@ public class WebSocketHandler {
 
     private void onMessage(WsMessageContext ctx) {
         String msg = ctx.message();
+        UserGameCommand baseCmd;
         try {
-            UserGameCommand baseCmd = gson.fromJson(msg, UserGameCommand.class);
-            if (baseCmd == null) {
-                sendError(ctx, "Invalid command format");
-                return;
-            }
+            baseCmd = gson.fromJson(msg, UserGameCommand.class);
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendError(ctx, "Invalid command format or server error");
+            return;
+        }
+        if (baseCmd == null) {
+            sendError(ctx, "Invalid command format");
+            return;
+        }
+
+        // Commands for a game run one after another on its mailbox, never on two threads at once.
+        Integer gameID = baseCmd.getGameID();
+        if (gameID == null) {
+            handleCommand(ctx, msg, baseCmd);
+        } else {
+            gameExecutor.execute(gameID, () -> handleCommand(ctx, msg, baseCmd));
+        }
+    }
 
+    private void handleCommand(WsContext ctx, String msg, UserGameCommand baseCmd) {
+        try {
             switch (baseCmd.getCommandType()) {
                 case CONNECT -> handleConnect(ctx, baseCmd);
                 case MAKE_MOVE -> handleMove(ctx, gson.fromJson(msg, MakeMoveCommand.class));
@@ -65,11 +95,25 @@ public class WebSocketHandler {
     private void onClose(WsCloseContext ctx) {
         System.out.println("Client disconnected: " + ctx.sessionId());
         gameConnections.forEach((gameID, clients) -> {
-            clients.removeIf(ws -> ws.sessionId().equals(ctx.sessionId()));
+            if (clients.removeIf(ws -> ws.sessionId().equals(ctx.sessionId()))) {
+                // On the mailbox, so a CONNECT already queued for the game is not undone.
+                gameExecutor.execute(gameID, () -> forgetIfUnwatched(gameID));
+            }
 //            broadcastNotification(gameID, "A player disconnected", null);
         });
     }
 
+    /** Drops the game's connection set and cached LOAD_GAME once nobody is connected to it. */
+    private void forgetIfUnwatched(int gameID) {
+        gameConnections.computeIfPresent(gameID, (id, clients) -> {
+            if (clients.isEmpty()) {
+                loadGamePayloads.remove(id);
+                return null;
+            }
+            return clients;
+        });
+    }
+
     private void onError(WsErrorContext ctx) {
         System.out.println("WebSocket error: " + ctx.sessionId());
         ctx.error().printStackTrace();
@@ -92,7 +136,7 @@ public class WebSocketHandler {
         gameConnections.computeIfAbsent(cmd.getGameID(), id -> ConcurrentHashMap.newKeySet()).add(ctx);
 
         try {
-            ctx.send(gson.toJson(new LoadGameMessage(game)));
+            ctx.send(loadGameJson(game));
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -107,6 +151,7 @@ public class WebSocketHandler {
         }
 
         broadcastNotification(cmd.getGameID(), username + " connected as " + role, ctx);
+        requestBotMove(game);
     }
 
     private void handleLeave(WsContext ctx, UserGameCommand cmd) {
@@ -119,7 +164,11 @@ public class WebSocketHandler {
         gameConnections.computeIfPresent(cmd.getGameID(), (id, clients) -> {
             clients.remove(ctx);
             broadcastNotification(cmd.getGameID(), username + " left the game", ctx);
-            return clients.isEmpty() ? null : clients;
+            if (clients.isEmpty()) {
+                loadGamePayloads.remove(id);
+                return null;
+            }
+            return clients;
         });
 
         try {
@@ -155,14 +204,12 @@ public class WebSocketHandler {
         }
     }
 
-    private void handleMove(WsContext ctx, UserGameCommand cmd) throws InvalidMoveException {
+    private void handleMove(WsContext ctx, UserGameCommand cmd) {
         if (!(cmd instanceof MakeMoveCommand moveCmd)) {
             sendError(ctx, "Invalid MAKE_MOVE command");
             return;
         }
 
-        ChessMove move = moveCmd.getMove();
-
         Optional<AuthData> authOpt = getAuth(ctx, moveCmd.getAuthToken());
         if (authOpt.isEmpty()) {
             return;
@@ -173,79 +220,85 @@ public class WebSocketHandler {
         if (gameOpt.isEmpty()) {
             return;
         }
-        GameData game = gameOpt.get();
-
-        if (game.game().getStatus() != ChessGame.Status.ONGOING && game.game().getStatus() != ChessGame.Status.CHECK) {
-            sendError(ctx, "Error: game already over");
-            return;
-        }
 
-        Collection<ChessMove> valid = game.game().validMoves(move.getStartPosition());
-        if (valid == null || !valid.contains(move)) {
-            sendError(ctx, "Error: illegal move");
-            return;
-        }
-
-        ChessGame.TeamColor playerColor =
-                username.equals(game.whiteUsername()) ? ChessGame.TeamColor.WHITE :
-                        username.equals(game.blackUsername()) ? ChessGame.TeamColor.BLACK :
-                                null;
-
-        if (playerColor == null) {
-            sendError(ctx, "Error: observers cannot make moves");
-            return;
-        }
-
-        if (playerColor != game.game().getTeamTurn()) {
-            sendError(ctx, "Error: not your turn");
-            return;
-        }
-
-        game.game().makeMove(move);
-        game.game().updateStatusAfterMove();
+        playMove(ctx, gameOpt.get(), username, moveCmd.getMove());
+    }
 
+    /**
+     * Validates, plays and saves a move, then sends LOAD_GAME and notifications to the game.
+     *
+     * @param ctx the mover's connection, which gets any error, or null for a bot
+     */
+    private void playMove(WsContext ctx, GameData game, String username, ChessMove move) {
+        GameData played;
         try {
-            gameDAO.updateGame(game);
+            // Works on a copy: a refused or unsaved move leaves the cached game untouched.
+            played = moveService.makeMove(game, username, move);
+        } catch (InvalidMoveException e) {
+            sendError(ctx, e.getMessage());
+            return;
         } catch (DataAccessException e) {
             sendError(ctx, "Error: server failed to update game");
             return;
         }
+        loadGamePayloads.remove(played.gameID());
 
-        Set<WsContext> clients = gameConnections.getOrDefault(cmd.getGameID(), Set.of());
-        String loadJson = gson.toJson(new LoadGameMessage(game));
-
-        for (WsContext c : clients) {
-            try {
-                c.send(loadJson);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
+        broadcast(played.gameID(), loadGameJson(played), null);
 
         String moveMessage = username + " moved from " + move.printMove();
 
-        broadcastNotification(cmd.getGameID(), moveMessage, ctx);
+        broadcastNotification(played.gameID(), moveMessage, ctx);
 
-        String statusMessage = switch (game.game().getStatus()) {
+        String statusMessage = switch (played.game().getStatus()) {
             case CHECK -> {
-                String user = (game.game().getTeamTurn() == ChessGame.TeamColor.WHITE)
-                        ? game.whiteUsername()
-                        : game.blackUsername();
+                String user = (played.game().getTeamTurn() == ChessGame.TeamColor.WHITE)
+                        ? played.whiteUsername()
+                        : played.blackUsername();
                 yield user + " is in check";
             }
             case CHECKMATE -> {
-                String loser = (game.game().getTeamTurn() == ChessGame.TeamColor.WHITE)
-                        ? game.whiteUsername()
-                        : game.blackUsername();
+                String loser = (played.game().getTeamTurn() == ChessGame.TeamColor.WHITE)
+                        ? played.whiteUsername()
+                        : played.blackUsername();
                 yield loser + " is in checkmate";
             }
             case STALEMATE -> "Stalemate";
             default -> null;
         };
         if (statusMessage != null) {
-            broadcastNotification(cmd.getGameID(), statusMessage, null);
+            broadcastNotification(played.gameID(), statusMessage, null);
         }
 
+        requestBotMove(played);
+    }
+
+    /** Asks the bot for a move if it sits in the seat whose turn it is. */
+    private void requestBotMove(GameData game) {
+        ChessGame.Status status = game.game().getStatus();
+        if (status != ChessGame.Status.ONGOING && status != ChessGame.Status.CHECK) {
+            return;
+        }
+        String seat = (game.game().getTeamTurn() == ChessGame.TeamColor.WHITE)
+                ? game.whiteUsername()
+                : game.blackUsername();
+        Optional<BotService.Level> level = BotService.levelOf(seat);
+        if (level.isEmpty()) {
+            return;
+        }
+
+        int gameID = game.gameID();
+        boolean accepted = botService.requestMove(gameID, game.game(), level.get(),
+                move -> gameExecutor.execute(gameID, () -> {
+                    try {
+                        // Re-read the game: it may have been resigned or left while the bot was thinking.
+                        gameDAO.getGameById(gameID).ifPresent(current -> playMove(null, current, seat, move));
+                    } catch (DataAccessException e) {
+                        e.printStackTrace();
+                    }
+                }));
+        if (!accepted) {
+            broadcastNotification(gameID, seat + " is busy; reconnect to ask for its move again", null);
+        }
     }
 
     private void handleResign(WsContext ctx, UserGameCommand cmd) {
@@ -275,27 +328,19 @@ public class WebSocketHandler {
             return;
         }
 
-        game.game().setStatus(ChessGame.Status.RESIGNED);
+        // Resign a copy, so the cached game only changes once the resignation is saved.
+        GameData resigned = game.copy();
+        resigned.game().setStatus(ChessGame.Status.RESIGNED);
         try {
-            gameDAO.updateGame(game);
+            gameDAO.updateGame(resigned);
         } catch (DataAccessException e) {
             sendError(ctx, "Server error updating game");
             return;
         }
+        loadGamePayloads.remove(resigned.gameID());
 
         String winner = isWhite ? game.blackUsername() : game.whiteUsername();
-        String message = username + " resigned. " + winner + " wins.";
-
-        Set<WsContext> clients = gameConnections.getOrDefault(cmd.getGameID(), Set.of());
-        String json = gson.toJson(new NotificationMessage(message));
-
-        for (WsContext client : clients) {
-            try {
-                client.send(json);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
+        broadcastNotification(cmd.getGameID(), username + " resigned. " + winner + " wins.", null);
     }
 
     // Helper Methods
@@ -325,13 +370,33 @@ public class WebSocketHandler {
         }
     }
 
+    /**
+     * The game's LOAD_GAME message, encoded once and reused until the game changes. Every change
+     * saves a new GameData, which misses the cache by itself; a saved move or resignation also
+     * removes the payload so the old game is not kept alive by it.
+     */
+    private String loadGameJson(GameData game) {
+        LoadGamePayload cached = loadGamePayloads.get(game.gameID());
+        if (cached != null && cached.game() == game) {
+            return cached.json();
+        }
+        String json = gson.toJson(new LoadGameMessage(game));
+        // A game nobody watches (bots playing on after everyone left) would never be cleaned up.
+        if (gameConnections.containsKey(game.gameID())) {
+            loadGamePayloads.put(game.gameID(), new LoadGamePayload(game, json));
+        }
+        return json;
+    }
+
     private void broadcastNotification(int gameID, String message, WsContext exclude) {
+        broadcast(gameID, gson.toJson(new NotificationMessage(message)), exclude);
+    }
+
+    /** Sends one already encoded message to every connection on the game except {@code exclude}. */
+    private void broadcast(int gameID, String json, WsContext exclude) {
         String excludeId = (exclude != null ? exclude.sessionId() : null);
 
         Set<WsContext> clients = gameConnections.getOrDefault(gameID, Set.of());
-        NotificationMessage notification = new NotificationMessage(message);
-        String json = gson.toJson(notification);
-
         for (WsContext client : clients) {
             if (excludeId != null && excludeId.equals(client.sessionId())) {
                 continue;
@@ -346,6 +411,10 @@ public class WebSocketHandler {
     }
 
     private void sendError(WsContext ctx, String message) {
+        if (ctx == null) {
+            System.out.println("Bot move refused: " + message);
+            return;
+        }
         try {
             ctx.send(gson.toJson(new ErrorMessage(message)));
         } catch (Exception e) {
@@ -1,3 +1,10 @@
 package request;
 
-public record JoinGameRequest(Integer gameID, String playerColor) { }
+/**
+ * @param computer bot level to seat in {@code playerColor} instead of the caller, or null to
+ *                 join as the caller (see service.BotService.Level)
+ */
+public record JoinGameRequest(Integer gameID, String playerColor, String computer) {
+
+    public JoinGameRequest(Integer gameID, String playerColor) { this(gameID, playerColor, null); }
+}
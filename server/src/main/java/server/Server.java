@@ -7,6 +7,8 @@ import result.*;
 import service.*;
 import handler.*;
 
+import java.util.concurrent.TimeUnit;
+
 public class Server {
 
     private final Javalin javalin;
@@ -15,13 +17,20 @@ public class Server {
     // DAOs
     private final UserDAO userDAO = new UserMySQL();
     private final AuthDAO authDAO = new AuthMySQL();
-    private final GameDAO gameDAO = new GameMySQL();
+    // Live games are served from memory; MySQL keeps them between sessions.
+    private final GameCache gameDAO = new GameCache(new GameMySQL(), 30, TimeUnit.MINUTES);
 
     // Services
+    // Joins and WebSocket commands run per game, in order, so two changes to one game never race.
+    private final GameExecutor gameExecutor = new GameExecutor(Runtime.getRuntime().availableProcessors());
     private final UserService userService = new UserService(userDAO, authDAO);
     private final AuthService authService = new AuthService(userDAO, authDAO);
-    private final GameService gameService = new GameService(gameDAO, authDAO);
+    private final GameService gameService = new GameService(gameDAO, authDAO, gameExecutor);
     private final ClearService clearService = new ClearService(userDAO, gameDAO, authDAO);
+    private final MoveService moveService = new MoveService(gameDAO);
+    // Bots search on half the cores at most, leaving the rest to the Javalin threads.
+    private final BotService botService = new BotService(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 64);
 
     // Handlers
     private final UserHandler userHandler = new UserHandler(userService, gson);
@@ -57,7 +66,7 @@ public class Server {
         javalin.delete("/db", clearHandler.clearAll);       // Clear DB - DELETE /db
 
         // Web Socket Endpoint
-        WebSocketHandler wsHandler = new WebSocketHandler(gson, authDAO, gameDAO);
+        WebSocketHandler wsHandler = new WebSocketHandler(gson, authDAO, gameDAO, moveService, botService, gameExecutor);
         javalin.ws("/ws", wsHandler::configureWs);
     }
 
@@ -76,6 +85,9 @@ public class Server {
 
     public void stop() {
         javalin.stop();
+        botService.close();
+        gameExecutor.close();
+        gameDAO.close();
     }
 
 }
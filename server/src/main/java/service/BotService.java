@@ -0,0 +1,127 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.search.Search;
+import chess.search.SearchLimits;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Computer players. A bot sits in a seat under a reserved name ({@code computer-easy} and so
+ * on, see {@link Level#seatName()}) and its moves are chosen by a {@link Search} run on this
+ * service's own threads, never on the Javalin threads that deliver player messages.
+ * <p>
+ * The pool has a fixed number of threads and a bounded queue, so a burst of bot games waits
+ * its turn or is turned away instead of piling up. Each thread keeps its own Search, and a
+ * game has at most one search queued or running at a time.
+ */
+public class BotService implements AutoCloseable {
+
+    /** Seat names starting with this belong to bots; players cannot register them. */
+    public static final String SEAT_PREFIX = "computer-";
+
+    public enum Level {
+        EASY(2, 200),
+        MEDIUM(4, 1000),
+        HARD(64, 3000);
+
+        private final SearchLimits limits;
+
+        Level(int maxDepth, long maxTimeMillis) {
+            this.limits = SearchLimits.depth(maxDepth).withTime(maxTimeMillis);
+        }
+
+        public SearchLimits limits() { return limits; }
+
+        public String seatName() { return SEAT_PREFIX + name().toLowerCase(Locale.ROOT); }
+
+        /** @return the level with the given name in any case, or empty if there is none */
+        public static Optional<Level> parse(String name) {
+            for (Level level : values()) {
+                if (level.name().equalsIgnoreCase(name)) {
+                    return Optional.of(level);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Search> searches = ThreadLocal.withInitial(Search::new);
+    private final Set<Integer> thinking = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param threads       searches that may run at once
+     * @param queueCapacity searches that may wait for a thread before requests are refused
+     */
+    public BotService(int threads, int queueCapacity) {
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "bot-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+    }
+
+    /**
+     * @return the bot level seated under the username, or empty for a human player, an empty
+     * seat or a reserved name that names no level. The prefix is matched in any case, as in
+     * {@link #isBotSeat}.
+     */
+    public static Optional<Level> levelOf(String username) {
+        if (!isBotSeat(username)) {
+            return Optional.empty();
+        }
+        return Level.parse(username.substring(SEAT_PREFIX.length()));
+    }
+
+    /** @return true if the name is reserved for bots: it starts with {@link #SEAT_PREFIX} in any case */
+    public static boolean isBotSeat(String username) {
+        return username != null && username.regionMatches(true, 0, SEAT_PREFIX, 0, SEAT_PREFIX.length());
+    }
+
+    /**
+     * Starts a search for the side to move on a snapshot of the game. {@code onMove} is called
+     * on a bot thread with the chosen move, unless the side to move has no legal move.
+     *
+     * @return false if the queue is full; true if the search was queued or one is already
+     * under way for the game
+     */
+    public boolean requestMove(int gameID, ChessGame game, Level level, Consumer<ChessMove> onMove) {
+        if (!thinking.add(gameID)) {
+            return true;
+        }
+        ChessGame position = game.copy();
+        try {
+            executor.execute(() -> {
+                ChessMove move;
+                try {
+                    move = searches.get().search(position, level.limits()).bestMove();
+                } finally {
+                    // Cleared before onMove so the move it plays can schedule the other bot's reply.
+                    thinking.remove(gameID);
+                }
+                if (move != null) {
+                    onMove.accept(move);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            thinking.remove(gameID);
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
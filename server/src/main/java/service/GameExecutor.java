@@ -0,0 +1,122 @@
+package service;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the work for each game one task at a time, in the order it was submitted, while
+ * different games run side by side on a shared pool. Every game with work waiting has a
+ * mailbox; one pool thread at a time drains it, so a game's state is only ever touched by a
+ * single writer and needs no lock of its own.
+ * <p>
+ * A mailbox exists only while it has work. The map's per-key {@code compute} decides, under
+ * the same lock, both whether a submit must start a drain and whether a drain has run out of
+ * work, so a task can never be left in a mailbox that nobody is draining.
+ */
+public class GameExecutor implements AutoCloseable {
+
+    /** Tasks a mailbox runs before giving its thread to the other games. */
+    private static final int THROUGHPUT = 16;
+
+    private final class Mailbox implements Runnable {
+        private final int gameID;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        Mailbox(int gameID) {
+            this.gameID = gameID;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < THROUGHPUT; i++) {
+                Runnable task = next(this);
+                if (task == null) {
+                    return;
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                } catch (Error e) {
+                    // The pool replaces this thread; hand the mailbox on so the game's later work still runs.
+                    pool.execute(this);
+                    throw e;
+                }
+            }
+            // Still in the map, so submits keep queueing here; pick up where we left off later.
+            pool.execute(this);
+        }
+    }
+
+    private final ExecutorService pool;
+    private final ConcurrentHashMap<Integer, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /** @param threads games that may run at once */
+    public GameExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "game-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Queues the task behind any work already waiting for the same game. */
+    public void execute(int gameID, Runnable task) {
+        Mailbox[] started = new Mailbox[1];
+        mailboxes.compute(gameID, (id, mailbox) -> {
+            if (mailbox == null) {
+                mailbox = new Mailbox(id);
+                started[0] = mailbox;
+            }
+            mailbox.tasks.add(task);
+            return mailbox;
+        });
+        if (started[0] != null) {
+            pool.execute(started[0]);
+        }
+    }
+
+    /**
+     * Queues the task like {@link #execute} and returns its result, for callers outside the
+     * pool, such as HTTP handlers, that must wait for it. A caller that gives up can cancel the
+     * future; the task is then skipped if it has not started.
+     */
+    public <T> CompletableFuture<T> submit(int gameID, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(gameID, () -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /** @return the number of games with work queued or running */
+    public int activeGames() { return mailboxes.size(); }
+
+    /** Takes the mailbox's next task, or retires the mailbox if it is empty. */
+    private Runnable next(Mailbox mailbox) {
+        Runnable[] task = new Runnable[1];
+        mailboxes.compute(mailbox.gameID, (id, current) -> {
+            task[0] = current.tasks.poll();
+            return task[0] == null ? null : current;
+        });
+        return task[0];
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -10,16 +10,26 @@ import com.google.gson.Gson;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class GameService {
 
+    /** Longest an HTTP thread waits for a join to reach the front of the game's mailbox. */
+    private static final long JOIN_TIMEOUT_SECONDS = 10;
+
     private final Gson gson = new Gson();
     private final GameDAO gameDAO;
     private final AuthDAO authDAO;
+    private final GameExecutor gameExecutor;
 
-    public GameService(GameDAO gameDAO, AuthDAO authDAO) {
+    /** @param gameExecutor runs joins on the game's mailbox, in order with its WebSocket commands */
+    public GameService(GameDAO gameDAO, AuthDAO authDAO, GameExecutor gameExecutor) {
         this.gameDAO = gameDAO;
         this.authDAO = authDAO;
+        this.gameExecutor = gameExecutor;
     }
 
     public GetAllGamesResult getAllGames(String authToken) throws DataAccessException {
@@ -62,7 +72,37 @@ public class GameService {
             throw new UnauthorizedException();
         }
         String joiningUsername = authOpt.get().username();
+        if (BotService.isBotSeat(joiningUsername)) {
+            // An account registered under a bot name before they were reserved; seated, it would never move.
+            throw new ForbiddenException();
+        }
+        if (request.computer() != null) {
+            joiningUsername = BotService.Level.parse(request.computer().trim())
+                    .orElseThrow(BadRequestException::new)
+                    .seatName();
+        }
+
+        String seatedUsername = joiningUsername;
+        CompletableFuture<JoinGameResult> join = gameExecutor.submit(request.gameID(), () -> seat(request, seatedUsername));
+        try {
+            return join.get(JOIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DataAccessException cause) {
+                throw cause;
+            }
+            throw new DataAccessException("Error joining game", e.getCause());
+        } catch (TimeoutException e) {
+            // Skip the join if it is still queued, so a player told it failed is not seated later.
+            join.cancel(false);
+            throw new DataAccessException("Timed out joining game", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted joining game", e);
+        }
+    }
 
+    /** The read-modify-write behind a join; runs on the game's mailbox. */
+    private JoinGameResult seat(JoinGameRequest request, String joiningUsername) throws DataAccessException {
         Optional<GameData> gameOpt = gameDAO.getGameById(request.gameID());
         if (gameOpt.isEmpty()) {
             throw new BadRequestException();
@@ -99,7 +139,8 @@ public class GameService {
 
         gameDAO.updateGame(updatedGame);
 
-        return new JoinGameResult("Player joined the game successfully", updatedGame);
+        // The result is serialised on the HTTP thread while later moves change the live game.
+        return new JoinGameResult("Player joined the game successfully", updatedGame.copy());
     }
 
 }
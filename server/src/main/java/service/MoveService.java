@@ -0,0 +1,62 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import dataaccess.*;
+import model.GameData;
+
+import java.util.Collection;
+
+/**
+ * The checks and bookkeeping behind a MAKE_MOVE: the game must still be running, the move
+ * legal, and the mover the player whose turn it is. Human moves from the WebSocket and moves
+ * chosen by a {@link BotService} both come through here.
+ */
+public class MoveService {
+
+    private final GameDAO gameDAO;
+
+    public MoveService(GameDAO gameDAO) {
+        this.gameDAO = gameDAO;
+    }
+
+    /**
+     * Plays the move on a copy of {@code game}, updates its status and saves it. {@code game}
+     * itself is left as it was, so a move that is refused or fails to save changes nothing.
+     *
+     * @param username the player making the move; a bot plays under its seat name
+     * @return the game after the move, now the saved copy
+     * @throws InvalidMoveException if the move is refused, with the message to show the player
+     * @throws DataAccessException  if the updated game could not be saved
+     */
+    public GameData makeMove(GameData game, String username, ChessMove move) throws InvalidMoveException, DataAccessException {
+        ChessGame chess = game.game();
+        if (chess.getStatus() != ChessGame.Status.ONGOING && chess.getStatus() != ChessGame.Status.CHECK) {
+            throw new InvalidMoveException("Error: game already over");
+        }
+
+        Collection<ChessMove> valid = chess.validMoves(move.getStartPosition());
+        if (valid == null || !valid.contains(move)) {
+            throw new InvalidMoveException("Error: illegal move");
+        }
+
+        ChessGame.TeamColor playerColor =
+                username.equals(game.whiteUsername()) ? ChessGame.TeamColor.WHITE :
+                        username.equals(game.blackUsername()) ? ChessGame.TeamColor.BLACK :
+                                null;
+
+        if (playerColor == null) {
+            throw new InvalidMoveException("Error: observers cannot make moves");
+        }
+        if (playerColor != chess.getTeamTurn()) {
+            throw new InvalidMoveException("Error: not your turn");
+        }
+
+        GameData moved = game.copy();
+        moved.game().makeMove(move);
+        moved.game().updateStatusAfterMove();
+        gameDAO.updateGame(moved);
+        return moved;
+    }
+}
@@ -27,7 +27,7 @@ public class UserService {
             throw new BadRequestException();
         }
 
-        if (userDAO.getUserByUsername(request.username()).isPresent()) {
+        if (BotService.isBotSeat(request.username()) || userDAO.getUserByUsername(request.username()).isPresent()) {
             throw new ForbiddenException();
         }
 
@@ -0,0 +1,170 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.GameData;
+import org.junit.jupiter.api.*;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameCacheTests {
+
+    /** Counts reads, writes and batches that reach the backing store, and can refuse writes. */
+    private static class CountingGameMemory extends GameMemory {
+        int reads;
+        int writes;
+        int batches;
+        boolean failWrites;
+
+        @Override
+        public Optional<GameData> getGameById(Integer gameId) throws DataAccessException {
+            reads++;
+            return super.getGameById(gameId);
+        }
+
+        @Override
+        public void updateGame(GameData game) throws DataAccessException {
+            if (failWrites) {
+                throw new DataAccessException("Database unavailable");
+            }
+            writes++;
+            super.updateGame(game);
+        }
+
+        @Override
+        public void updateGames(Collection<GameData> games) throws DataAccessException {
+            batches++;
+            super.updateGames(games);
+        }
+    }
+
+    private CountingGameMemory backend;
+    private GameCache cache;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        backend = new CountingGameMemory();
+        backend.insertGame(new GameData(1, "white", "black", "Cached", new ChessGame()));
+        backend.insertGame(new GameData(2, "white", "black", "Other", new ChessGame()));
+        cache = new GameCache(backend, 1, TimeUnit.HOURS, TimeUnit.HOURS.toMillis(1), 64, GameCache::isFinished);
+    }
+
+    @AfterEach
+    void tearDown() { cache.close(); }
+
+    @Test
+    void repeatedReadsAreServedFromMemory() throws DataAccessException {
+        GameData first = cache.getGameById(1).orElseThrow();
+        GameData second = cache.getGameById(1).orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(1, backend.reads);
+    }
+
+    @Test
+    void updatesAreReadBackAndWrittenOnFlush() throws DataAccessException {
+        GameData joined = new GameData(1, "white", "black", "Cached", new ChessGame());
+        cache.updateGame(joined);
+
+        assertSame(joined, cache.getGameById(1).orElseThrow());
+        assertEquals(0, backend.writes);
+
+        cache.flush();
+        assertEquals(joined, backend.getGameById(1).orElseThrow());
+        assertEquals(0, cache.pendingWrites());
+    }
+
+    @Test
+    void repeatedUpdatesToAGameAreCoalesced() throws Exception {
+        GameData game = cache.getGameById(1).orElseThrow();
+        game.game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        cache.updateGame(game);
+        game.game().makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        cache.updateGame(game);
+        cache.updateGame(cache.getGameById(2).orElseThrow());
+        assertEquals(2, cache.pendingWrites());
+
+        cache.flush();
+        assertEquals(1, backend.batches);
+        assertEquals(2, backend.writes);
+        GameData stored = backend.getGameById(1).orElseThrow();
+        assertNotSame(game.game(), stored.game());
+        assertEquals(game.game(), stored.game());
+    }
+
+    @Test
+    void finishedGamesAreWrittenImmediately() throws DataAccessException {
+        GameData game = cache.getGameById(1).orElseThrow();
+        cache.updateGame(game);
+        game.game().setStatus(ChessGame.Status.RESIGNED);
+        cache.updateGame(game);
+
+        assertEquals(1, backend.writes);
+        assertEquals(0, cache.pendingWrites());
+        assertEquals(ChessGame.Status.RESIGNED, backend.getGameById(1).orElseThrow().game().getStatus());
+    }
+
+    @Test
+    void failedWriteThroughIsRetriedAndKeptInMemory() throws DataAccessException {
+        GameData game = cache.getGameById(1).orElseThrow().copy();
+        game.game().setStatus(ChessGame.Status.RESIGNED);
+        backend.failWrites = true;
+
+        cache.updateGame(game);
+        assertEquals(1, cache.pendingWrites());
+        cache.evictIdle(System.nanoTime() + TimeUnit.HOURS.toNanos(2));
+        assertSame(game, cache.getGameById(1).orElseThrow());
+
+        backend.failWrites = false;
+        cache.flush();
+        assertEquals(0, cache.pendingWrites());
+        assertEquals(ChessGame.Status.RESIGNED, backend.getGameById(1).orElseThrow().game().getStatus());
+    }
+
+    @Test
+    void gamesWithQueuedWritesAreNotEvicted() throws DataAccessException {
+        cache.updateGame(cache.getGameById(1).orElseThrow());
+        cache.evictIdle(System.nanoTime() + TimeUnit.HOURS.toNanos(2));
+        assertEquals(1, cache.size());
+
+        cache.flush();
+        cache.evictIdle(System.nanoTime() + TimeUnit.HOURS.toNanos(2));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void listingsGetASnapshotNotTheLiveGame() throws Exception {
+        GameData live = cache.getGameById(1).orElseThrow();
+        GameData listed = cache.getAllGames().stream().filter(g -> g.gameID() == 1).findFirst().orElseThrow();
+
+        assertNotSame(live.game(), listed.game());
+        live.game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals(new ChessGame(), listed.game());
+
+        cache.updateGame(live);
+        listed = cache.getAllGames().stream().filter(g -> g.gameID() == 1).findFirst().orElseThrow();
+        assertEquals(live.game(), listed.game());
+        assertNotSame(live.game(), listed.game());
+    }
+
+    @Test
+    void idleGamesAreEvictedAndReloaded() throws DataAccessException {
+        cache.getGameById(1);
+        cache.evictIdle(System.nanoTime() + TimeUnit.HOURS.toNanos(2));
+
+        assertEquals(0, cache.size());
+        cache.getGameById(1);
+        assertEquals(2, backend.reads);
+    }
+
+    @Test
+    void missingGamesAreNotCached() throws DataAccessException {
+        assertTrue(cache.getGameById(99).isEmpty());
+        assertEquals(0, cache.size());
+    }
+}
@@ -91,6 +91,16 @@ class GameMySQLTests {
         assertThrows(BadRequestException.class, () -> gameDAO.updateGame(game));
     }
 
+    @Test
+    void updateGamesWithMissingGameWritesNone() throws DataAccessException {
+        int gameID = gameDAO.insertGame(new GameData(0, null, null, "Batch Game", null));
+        GameData updated = new GameData(gameID, "Alice", "Bob", "Batch Game", null);
+        GameData missing = new GameData(999, "Alice", "Bob", "Nonexistent", null);
+
+        assertThrows(BadRequestException.class, () -> gameDAO.updateGames(List.of(updated, missing)));
+        assertNull(gameDAO.getGameById(gameID).orElseThrow().whiteUsername());
+    }
+
     @Test
     void clearTable() throws DataAccessException {
         GameData game = new GameData(0, null, null, "Clear Me", null);
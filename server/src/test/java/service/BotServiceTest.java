@@ -0,0 +1,36 @@
+package service;
+
+import chess.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class BotServiceTest {
+
+    @Test
+    void levelOfReadsSeatNames() {
+        assertEquals(BotService.Level.HARD, BotService.levelOf("computer-hard").orElseThrow());
+        assertTrue(BotService.levelOf("alice").isEmpty());
+        assertTrue(BotService.levelOf(null).isEmpty());
+        assertEquals(BotService.Level.HARD, BotService.levelOf("Computer-HARD").orElseThrow());
+        assertTrue(BotService.isBotSeat("Computer-anything"));
+        assertTrue(BotService.levelOf("Computer-anything").isEmpty());
+    }
+
+    @Test
+    void requestMoveAnswersWithLegalMove() throws Exception {
+        ChessGame game = new ChessGame();
+        CompletableFuture<ChessMove> reply = new CompletableFuture<>();
+
+        try (BotService bots = new BotService(1, 4)) {
+            assertTrue(bots.requestMove(1, game, BotService.Level.EASY, reply::complete));
+            ChessMove move = reply.get(10, TimeUnit.SECONDS);
+
+            assertTrue(game.legalMoves().contains(move));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class GameExecutorTest {
+
+    @Test
+    void tasksForOneGameRunInOrderOneAtATime() throws Exception {
+        int tasks = 1000;
+        List<Integer> order = new ArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(tasks);
+
+        try (GameExecutor executor = new GameExecutor(4)) {
+            for (int i = 0; i < tasks; i++) {
+                int n = i;
+                executor.execute(7, () -> {
+                    if (running.incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    order.add(n);
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(0, overlaps.get());
+        assertEquals(IntStream.range(0, tasks).boxed().toList(), order);
+    }
+
+    @Test
+    void differentGamesRunAtTheSameTime() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+
+        try (GameExecutor executor = new GameExecutor(2)) {
+            for (int gameID = 1; gameID <= 2; gameID++) {
+                executor.execute(gameID, () -> {
+                    bothStarted.countDown();
+                    try {
+                        // Only returns if the other game's task is running alongside this one.
+                        if (bothStarted.await(10, TimeUnit.SECONDS)) {
+                            done.countDown();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void anErrorInOneTaskDoesNotStallTheGame() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+
+        try (GameExecutor executor = new GameExecutor(1)) {
+            executor.execute(5, () -> {
+                throw new AssertionError("expected by the test");
+            });
+            executor.execute(5, done::countDown);
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void submitReturnsTheResultOrFailure() throws Exception {
+        try (GameExecutor executor = new GameExecutor(1)) {
+            assertEquals("seated", executor.submit(5, () -> "seated").get(10, TimeUnit.SECONDS));
+
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> executor.submit(5, () -> { throw new IllegalStateException("no"); }).get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+        }
+    }
+
+    @Test
+    void cancelledSubmissionIsSkipped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+
+        try (GameExecutor executor = new GameExecutor(1)) {
+            executor.execute(5, () -> {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.submit(5, ran::incrementAndGet).cancel(false);
+            release.countDown();
+
+            assertEquals("after", executor.submit(5, () -> "after").get(10, TimeUnit.SECONDS));
+            assertEquals(0, ran.get());
+        }
+    }
+
+    @Test
+    void idleGamesLeaveNoMailbox() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+
+        try (GameExecutor executor = new GameExecutor(1)) {
+            executor.execute(3, done::countDown);
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (executor.activeGames() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(0, executor.activeGames());
+        }
+    }
+}
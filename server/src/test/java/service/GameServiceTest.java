@@ -12,13 +12,16 @@ import org.junit.jupiter.api.*;
 public class GameServiceTest {
 
     private GameService gameService;
+    private AuthMemory authDAO;
+    private GameExecutor gameExecutor;
 
     @BeforeEach
     void setUp() throws DataAccessException {
-        AuthMemory authDAO = new AuthMemory();
+        authDAO = new AuthMemory();
         GameMemory gameDAO = new GameMemory();
 
-        gameService = new GameService(gameDAO, authDAO);
+        gameExecutor = new GameExecutor(1);
+        gameService = new GameService(gameDAO, authDAO, gameExecutor);
 
         String username = "tester";
         String token = "valid-token";
@@ -28,6 +31,9 @@ public class GameServiceTest {
         gameDAO.insertGame(new GameData(3, "", "", "Test Game 2", null));
     }
 
+    @AfterEach
+    void tearDown() { gameExecutor.close(); }
+
     // Get Games Tests
     @Test
     void getAllGamesSuccess() throws DataAccessException {
@@ -173,4 +179,32 @@ public class GameServiceTest {
         ForbiddenException exception = assertThrows(ForbiddenException.class, () -> gameService.joinGame(joinRequest, token));
         assertEquals("Error: already taken", exception.getMessage());
     }
+
+    @Test
+    void joinGameSeatsComputerInsteadOfCaller() throws DataAccessException {
+        String token = "valid-token";
+        int gameID = gameService.createGame(new CreateGameRequest("Bot Game"), token).gameID();
+        JoinGameResult joinResult = gameService.joinGame(new JoinGameRequest(gameID, "black", "Hard"), token);
+
+        assertEquals("computer-hard", joinResult.game().blackUsername());
+        assertNull(joinResult.game().whiteUsername());
+    }
+
+    @Test
+    void joinGameUnknownComputerThrowsBadRequestException() throws DataAccessException {
+        String token = "valid-token";
+        int gameID = gameService.createGame(new CreateGameRequest("Bot Game"), token).gameID();
+        JoinGameRequest request = new JoinGameRequest(gameID, "black", "grandmaster");
+
+        assertThrows(BadRequestException.class, () -> gameService.joinGame(request, token));
+    }
+
+    @Test
+    void joinGameAsAccountWithBotNameThrowsForbiddenException() throws DataAccessException {
+        authDAO.insertAuth(new AuthData("bot-token", "Computer-hard"));
+        int gameID = gameService.createGame(new CreateGameRequest("Bot Game"), "valid-token").gameID();
+        JoinGameRequest request = new JoinGameRequest(gameID, "white");
+
+        assertThrows(ForbiddenException.class, () -> gameService.joinGame(request, "bot-token"));
+    }
 }
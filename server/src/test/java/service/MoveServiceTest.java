@@ -0,0 +1,78 @@
+package service;
+
+import chess.*;
+import dataaccess.*;
+import model.GameData;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+
+public class MoveServiceTest {
+
+    private static final ChessMove E2_E4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+
+    private GameMemory gameDAO;
+    private MoveService moveService;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        gameDAO = new GameMemory();
+        moveService = new MoveService(gameDAO);
+        gameDAO.insertGame(new GameData(1, "white", "black", "Test Game", new ChessGame()));
+    }
+
+    @Test
+    void makeMoveSavesGame() throws Exception {
+        moveService.makeMove(gameDAO.getGameById(1).orElseThrow(), "white", E2_E4);
+
+        assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGameById(1).orElseThrow().game().getTeamTurn());
+    }
+
+    @Test
+    void makeMoveLeavesTheGivenGameUntilSaved() throws Exception {
+        GameData game = gameDAO.getGameById(1).orElseThrow();
+        GameData moved = moveService.makeMove(game, "white", E2_E4);
+
+        assertEquals(ChessGame.TeamColor.WHITE, game.game().getTeamTurn());
+        assertSame(moved, gameDAO.getGameById(1).orElseThrow());
+    }
+
+    @Test
+    void makeMoveThatFailsToSaveChangesNothing() throws DataAccessException {
+        GameData game = gameDAO.getGameById(1).orElseThrow();
+        MoveService failing = new MoveService(new GameMemory());
+
+        assertThrows(BadRequestException.class, () -> failing.makeMove(game, "white", E2_E4));
+        assertEquals(new ChessGame(), game.game());
+    }
+
+    @Test
+    void makeMoveOutOfTurnThrowsInvalidMoveException() throws DataAccessException {
+        GameData game = gameDAO.getGameById(1).orElseThrow();
+        ChessMove move = new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null);
+        InvalidMoveException exception = assertThrows(InvalidMoveException.class,
+                () -> moveService.makeMove(game, "black", move));
+
+        assertEquals("Error: not your turn", exception.getMessage());
+    }
+
+    @Test
+    void makeMoveAsObserverThrowsInvalidMoveException() throws DataAccessException {
+        GameData game = gameDAO.getGameById(1).orElseThrow();
+        InvalidMoveException exception = assertThrows(InvalidMoveException.class,
+                () -> moveService.makeMove(game, "observer", E2_E4));
+
+        assertEquals("Error: observers cannot make moves", exception.getMessage());
+    }
+
+    @Test
+    void makeMoveAfterResignationThrowsInvalidMoveException() throws DataAccessException {
+        GameData game = gameDAO.getGameById(1).orElseThrow();
+        game.game().setStatus(ChessGame.Status.RESIGNED);
+        InvalidMoveException exception = assertThrows(InvalidMoveException.class,
+                () -> moveService.makeMove(game, "white", E2_E4));
+
+        assertEquals("Error: game already over", exception.getMessage());
+    }
+}
@@ -0,0 +1,124 @@
+package chess;
+
+/**
+ * Helpers for the 64-bit square sets used by {@link ChessBoard}.
+ * <p>
+ * Squares are numbered 0 to 63 starting at a1 (row 1, column 1) and
+ * increasing along the row first, so h1 is 7, a2 is 8 and h8 is 63.
+ */
+public final class Bitboards {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private static final long NOT_FILE_A = ~FILE_A;
+    private static final long NOT_FILE_H = ~FILE_H;
+    private static final long NOT_FILE_AB = ~(FILE_A | (FILE_A << 1));
+    private static final long NOT_FILE_GH = ~(FILE_H | (FILE_H >>> 1));
+
+    private static final long[] BETWEEN = new long[64 * 64];
+    private static final long[] LINE = new long[64 * 64];
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    /** Indexed by {@code color.ordinal() * 64 + square}. */
+    private static final long[] PAWN_ATTACKS = new long[2 * 64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = knightAttacks(bit(square));
+            KING_ATTACKS[square] = kingAttacks(bit(square));
+            PAWN_ATTACKS[square] = pawnAttacks(bit(square), ChessGame.TeamColor.WHITE);
+            PAWN_ATTACKS[64 + square] = pawnAttacks(bit(square), ChessGame.TeamColor.BLACK);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) {
+                    continue;
+                }
+                long ends = bit(a) | bit(b);
+                if ((bishopAttacks(a, 0L) & bit(b)) != 0) {
+                    BETWEEN[a * 64 + b] = bishopAttacks(a, bit(b)) & bishopAttacks(b, bit(a));
+                    LINE[a * 64 + b] = (bishopAttacks(a, 0L) & bishopAttacks(b, 0L)) | ends;
+                } else if ((rookAttacks(a, 0L) & bit(b)) != 0) {
+                    BETWEEN[a * 64 + b] = rookAttacks(a, bit(b)) & rookAttacks(b, bit(a));
+                    LINE[a * 64 + b] = (rookAttacks(a, 0L) & rookAttacks(b, 0L)) | ends;
+                }
+            }
+        }
+    }
+
+    private Bitboards() { }
+
+    /** @return the square index of a 1-based row and column */
+    public static int square(int row, int col) { return (row - 1) * 8 + (col - 1); }
+
+    public static int square(ChessPosition position) { return square(position.getRow(), position.getColumn()); }
+
+    /** @return the 1-based row of a square index */
+    public static int row(int square) { return (square >>> 3) + 1; }
+
+    /** @return the 1-based column of a square index */
+    public static int column(int square) { return (square & 7) + 1; }
+
+    public static ChessPosition position(int square) { return ChessPosition.of(square); }
+
+    public static long bit(int square) { return 1L << square; }
+
+    /** @return the squares strictly between two squares on a shared row, column or diagonal, else empty */
+    public static long between(int a, int b) { return BETWEEN[a * 64 + b]; }
+
+    /** @return the whole row, column or diagonal through both squares, else empty */
+    public static long line(int a, int b) { return LINE[a * 64 + b]; }
+
+    /** Index of a piece's set in the twelve piece bitboards: six white sets followed by six black sets. */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /** @return the squares a knight on the square attacks (table lookup) */
+    public static long knightAttacks(int square) { return KNIGHT_ATTACKS[square]; }
+
+    /** @return the squares a king on the square attacks (table lookup) */
+    public static long kingAttacks(int square) { return KING_ATTACKS[square]; }
+
+    /** @return the squares a pawn of {@code color} on the square attacks (table lookup) */
+    public static long pawnAttacks(int square, ChessGame.TeamColor color) {
+        return PAWN_ATTACKS[color.ordinal() * 64 + square];
+    }
+
+    /** @return the squares attacked by any of the given knights */
+    public static long knightAttacks(long knights) {
+        return ((knights << 17) & NOT_FILE_A) | ((knights << 15) & NOT_FILE_H)
+                | ((knights << 10) & NOT_FILE_AB) | ((knights << 6) & NOT_FILE_GH)
+                | ((knights >>> 17) & NOT_FILE_H) | ((knights >>> 15) & NOT_FILE_A)
+                | ((knights >>> 10) & NOT_FILE_GH) | ((knights >>> 6) & NOT_FILE_AB);
+    }
+
+    /** @return the squares attacked by any of the given kings */
+    public static long kingAttacks(long kings) {
+        long sideways = ((kings << 1) & NOT_FILE_A) | ((kings >>> 1) & NOT_FILE_H);
+        long row = kings | sideways;
+        return sideways | (row << 8) | (row >>> 8);
+    }
+
+    /** @return the squares attacked by the given pawns moving in {@code color}'s direction */
+    public static long pawnAttacks(long pawns, ChessGame.TeamColor color) {
+        if (color == ChessGame.TeamColor.WHITE) {
+            return ((pawns << 9) & NOT_FILE_A) | ((pawns << 7) & NOT_FILE_H);
+        }
+        return ((pawns >>> 7) & NOT_FILE_A) | ((pawns >>> 9) & NOT_FILE_H);
+    }
+
+    /** @return the squares a bishop on the square attacks given the occupied squares (magic lookup) */
+    public static long bishopAttacks(int square, long occupied) { return SlidingAttacks.bishopAttacks(square, occupied); }
+
+    /** @return the squares a rook on the square attacks given the occupied squares (magic lookup) */
+    public static long rookAttacks(int square, long occupied) { return SlidingAttacks.rookAttacks(square, occupied); }
+
+    public static long queenAttacks(int square, long occupied) {
+        return SlidingAttacks.bishopAttacks(square, occupied) | SlidingAttacks.rookAttacks(square, occupied);
+    }
+}
@@ -0,0 +1,100 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Castling rights packed into four bits, one per king and side. A right is lost for good
+ * once the king or that rook moves or the rook is captured, which {@link #afterMove}
+ * applies with a single mask per square.
+ */
+final class CastlingRights {
+
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int ALL = 15;
+    static final int NONE = 0;
+
+    /** Rights kept when a piece leaves or lands on each square. */
+    private static final int[] KEEP = new int[64];
+
+    static {
+        Arrays.fill(KEEP, ALL);
+        KEEP[Bitboards.square(1, 5)] = ALL & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        KEEP[Bitboards.square(1, 8)] = ALL & ~WHITE_KINGSIDE;
+        KEEP[Bitboards.square(1, 1)] = ALL & ~WHITE_QUEENSIDE;
+        KEEP[Bitboards.square(8, 5)] = ALL & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        KEEP[Bitboards.square(8, 8)] = ALL & ~BLACK_KINGSIDE;
+        KEEP[Bitboards.square(8, 1)] = ALL & ~BLACK_QUEENSIDE;
+    }
+
+    private CastlingRights() { }
+
+    static int afterMove(int rights, int from, int to) { return rights & KEEP[from] & KEEP[to]; }
+
+    static int kingside(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+    }
+
+    static int queenside(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+    }
+
+    /** @return the king's starting square for the team */
+    static int kingHome(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? Bitboards.square(1, 5) : Bitboards.square(8, 5);
+    }
+
+    /**
+     * Rights for a board set up without any history: a right is assumed for every king and
+     * rook still standing on their starting squares.
+     */
+    static int forPlacement(ChessBoard board) {
+        int rights = NONE;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            int king = kingHome(color);
+            if ((board.getBitboard(color, ChessPiece.PieceType.KING) & Bitboards.bit(king)) == 0) {
+                continue;
+            }
+            long rooks = board.getBitboard(color, ChessPiece.PieceType.ROOK);
+            if ((rooks & Bitboards.bit(king + 3)) != 0) {
+                rights |= kingside(color);
+            }
+            if ((rooks & Bitboards.bit(king - 4)) != 0) {
+                rights |= queenside(color);
+            }
+        }
+        return rights;
+    }
+
+    /** @return the rights in FEN form, e.g. "KQkq", or "-" for none */
+    static String toFen(int rights) {
+        StringBuilder text = new StringBuilder();
+        if ((rights & WHITE_KINGSIDE) != 0) { text.append('K'); }
+        if ((rights & WHITE_QUEENSIDE) != 0) { text.append('Q'); }
+        if ((rights & BLACK_KINGSIDE) != 0) { text.append('k'); }
+        if ((rights & BLACK_QUEENSIDE) != 0) { text.append('q'); }
+        return text.isEmpty() ? "-" : text.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the field contains anything but KQkq or "-"
+     */
+    static int fromFen(String field) {
+        int rights = NONE;
+        if (field.equals("-")) {
+            return rights;
+        }
+        for (char c : field.toCharArray()) {
+            rights |= switch (c) {
+                case 'K' -> WHITE_KINGSIDE;
+                case 'Q' -> WHITE_QUEENSIDE;
+                case 'k' -> BLACK_KINGSIDE;
+                case 'q' -> BLACK_QUEENSIDE;
+                default -> throw new IllegalArgumentException("Bad castling field in FEN: " + field);
+            };
+        }
+        return rights;
+    }
+}
@@ -10,17 +10,94 @@ import java.util.Arrays;
  */
 public class ChessBoard {
 
+    /** {@link #getPhase()} of the starting position. */
+    public static final int MAX_PHASE = PieceSquareTables.MAX_PHASE;
+
+    /** Material values in centipawns, indexed by PieceType ordinal; the king is never traded, so it counts 0. */
+    private static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+    /*
+     * The same values for exchanges, where the king's only has to outweigh everything else;
+     * it never captures onto a square the other side still attacks.
+     */
+    private static final int[] EXCHANGE_VALUES = exchangeValues();
+    private static final ChessPiece.PieceType[] CHEAPEST_FIRST = {
+            ChessPiece.PieceType.PAWN,
+            ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.KING
+    };
+
     final private ChessPiece[][] board = new ChessPiece[8][8];
 
+    /*
+     * Bitboard index over the same pieces: one set per piece kind (see Bitboards.pieceIndex)
+     * plus an occupancy set per team. It is derived from the array, so it is left out of the
+     * serialized form and built on first use (Gson fills the array after the constructor runs).
+     */
+    private transient long[] pieceSets;
+    private transient long[] teamSets;
+    private transient long zobristKey;
+    /* Running evaluation terms, see PieceSquareTables; updated alongside the bitboards. */
+    private transient long pawnKey;
+    private transient int midgameScore;
+    private transient int endgameScore;
+    private transient int phase;
+    /* Swap list reused by staticExchange; one capture sequence never exceeds 32 pieces. */
+    private transient int[] exchangeGains;
+
     public ChessBoard() { }
 
+    private static int[] exchangeValues() {
+        int[] values = PIECE_VALUES.clone();
+        values[ChessPiece.PieceType.KING.ordinal()] = 10000;
+        return values;
+    }
+
+    /** @return the piece's material value in centipawns, 0 for the king */
+    public static int pieceValue(ChessPiece.PieceType type) { return PIECE_VALUES[type.ordinal()]; }
+
     /**
      * Adds a chess piece to the chessboard
      *
      * @param position where to add the piece to
      * @param piece    the piece to add
      */
-    public void addPiece(ChessPosition position, ChessPiece piece) { board[position.getRow() - 1][position.getColumn() - 1] = piece; }
+    public void addPiece(ChessPosition position, ChessPiece piece) { setPiece(Bitboards.square(position), piece); }
+
+    /** Places a piece (or null to clear) on a square index, keeping the bitboards in step. */
+    public void setPiece(int square, ChessPiece piece) {
+        ensureIndexed();
+        ChessPiece[] row = board[square >>> 3];
+        ChessPiece previous = row[square & 7];
+        long mask = Bitboards.bit(square);
+
+        if (previous != null) {
+            pieceSets[Bitboards.pieceIndex(previous.getTeamColor(), previous.getPieceType())] &= ~mask;
+            teamSets[previous.getTeamColor().ordinal()] &= ~mask;
+            zobristKey ^= Zobrist.piece(previous, square);
+            updateScores(previous, square, -1);
+        }
+        if (piece != null) {
+            pieceSets[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())] |= mask;
+            teamSets[piece.getTeamColor().ordinal()] |= mask;
+            zobristKey ^= Zobrist.piece(piece, square);
+            updateScores(piece, square, 1);
+        }
+        row[square & 7] = piece;
+    }
+
+    /** Adds ({@code sign} 1) or removes (-1) a piece's share of the running evaluation terms. */
+    private void updateScores(ChessPiece piece, int square, int sign) {
+        int index = PieceSquareTables.index(piece, square);
+        midgameScore += sign * PieceSquareTables.MIDGAME[index];
+        endgameScore += sign * PieceSquareTables.ENDGAME[index];
+        phase += sign * PieceSquareTables.PHASE[piece.getPieceType().ordinal()];
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            pawnKey ^= Zobrist.piece(piece, square);
+        }
+    }
 
     /**
      * Gets a chess piece on the chessboard
@@ -31,36 +108,291 @@ public class ChessBoard {
      */
     public ChessPiece getPiece(ChessPosition position) { return board[position.getRow() - 1][position.getColumn() - 1]; }
 
+    public ChessPiece getPiece(int square) { return board[square >>> 3][square & 7]; }
+
     static public boolean isValidPosition(int row, int col) { return row >= 1 && row <= 8 && col >= 1 && col <= 8; }
 
+    /** @return the set of squares holding the given team's pieces of the given type */
+    public long getBitboard(ChessGame.TeamColor team, ChessPiece.PieceType type) {
+        ensureIndexed();
+        return pieceSets[Bitboards.pieceIndex(team, type)];
+    }
+
+    /** @return the set of squares holding any of the given team's pieces */
+    public long getOccupancy(ChessGame.TeamColor team) {
+        ensureIndexed();
+        return teamSets[team.ordinal()];
+    }
+
+    /** @return the set of all occupied squares */
+    public long getOccupancy() {
+        ensureIndexed();
+        return teamSets[0] | teamSets[1];
+    }
+
+    /**
+     * @return the 64-bit Zobrist hash of the piece placement, kept up to date by every
+     * addPiece/setPiece; equal boards always have equal keys
+     */
+    public long getZobristKey() {
+        ensureIndexed();
+        return zobristKey;
+    }
+
+    /** @return the Zobrist hash of the pawns alone, for caching pawn-structure terms */
+    public long getPawnKey() {
+        ensureIndexed();
+        return pawnKey;
+    }
+
+    /** @return material plus piece-square score for the middlegame, in centipawns from white's side */
+    public int getMidgameScore() {
+        ensureIndexed();
+        return midgameScore;
+    }
+
+    /** @return material plus piece-square score for the endgame, in centipawns from white's side */
+    public int getEndgameScore() {
+        ensureIndexed();
+        return endgameScore;
+    }
+
+    /**
+     * @return how much non-pawn material is left, from 0 (kings and pawns) up to
+     * {@link #MAX_PHASE} for a full set; more than a full set (after promotions) can exceed it
+     */
+    public int getPhase() {
+        ensureIndexed();
+        return phase;
+    }
+
+    /**
+     * @return the square index of the team's king, or -1 if it has none. Read straight off
+     * the king bitboard, which addPiece and every move keep current.
+     */
+    public int getKingSquare(ChessGame.TeamColor team) {
+        long kings = getBitboard(team, ChessPiece.PieceType.KING);
+        return kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+    }
+
+    /** @return the shared position of the team's king, or null if it has none */
     public ChessPosition getKingPosition(ChessGame.TeamColor team) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = getPiece(position);
-
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    if (piece.getTeamColor() == team) {
-                        return position;
-                    }
+        int square = getKingSquare(team);
+        return square < 0 ? null : Bitboards.position(square);
+    }
+
+    /**
+     * Determines whether any of the attacking team's pieces could capture on the square.
+     *
+     * @param square   square index being tested
+     * @param attacker the team whose attacks are considered
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor attacker) {
+        ensureIndexed();
+        long[] sets = pieceSets;
+        int base = attacker.ordinal() * 6;
+        long occupied = teamSets[0] | teamSets[1];
+        ChessGame.TeamColor defender = (attacker == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK
+                : ChessGame.TeamColor.WHITE;
+
+        // A pawn attacks the square exactly when a defending pawn on the square would attack the pawn.
+        if ((Bitboards.pawnAttacks(square, defender) & sets[base + ChessPiece.PieceType.PAWN.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Bitboards.knightAttacks(square) & sets[base + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Bitboards.kingAttacks(square) & sets[base + ChessPiece.PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+
+        long queens = sets[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long diagonal = sets[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        if (diagonal != 0 && (Bitboards.bishopAttacks(square, occupied) & diagonal) != 0) {
+            return true;
+        }
+        long straight = sets[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        return straight != 0 && (Bitboards.rookAttacks(square, occupied) & straight) != 0;
+    }
+
+    /**
+     * Finds the attacking team's pieces that attack the square, with sliders blocked by
+     * {@code occupied} rather than the board's own occupancy (so pieces can be treated as
+     * removed, e.g. a king stepping along the line of a checking rook).
+     *
+     * @return the set of squares holding attacking pieces
+     */
+    public long attackersTo(int square, long occupied, ChessGame.TeamColor attacker) {
+        ensureIndexed();
+        long[] sets = pieceSets;
+        int base = attacker.ordinal() * 6;
+        ChessGame.TeamColor defender = (attacker == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK
+                : ChessGame.TeamColor.WHITE;
+        long queens = sets[base + ChessPiece.PieceType.QUEEN.ordinal()];
+
+        return (Bitboards.pawnAttacks(square, defender) & sets[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Bitboards.knightAttacks(square) & sets[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Bitboards.kingAttacks(square) & sets[base + ChessPiece.PieceType.KING.ordinal()])
+                | (Bitboards.bishopAttacks(square, occupied) & (sets[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens))
+                | (Bitboards.rookAttacks(square, occupied) & (sets[base + ChessPiece.PieceType.ROOK.ordinal()] | queens));
+    }
+
+    /**
+     * Static exchange evaluation: plays out every capture on the move's target square, each
+     * side recapturing with its least valuable piece and free to stop when that is better,
+     * and returns the material the moving side ends up with. Nothing is moved on the board;
+     * pieces are only lifted off an occupancy set, which uncovers sliders lined up behind them
+     * (x-rays). Pins and checks are ignored.
+     *
+     * @param move a {@link Move}-encoded move whose start square holds a piece; en passant and
+     *             promotion flags are honoured
+     * @return the expected material gain in centipawns, negative when the move loses material
+     */
+    public int staticExchange(int move) {
+        ensureIndexed();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece mover = getPiece(from);
+        ChessGame.TeamColor side = (mover.getTeamColor() == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK
+                : ChessGame.TeamColor.WHITE;
+        long occupied = getOccupancy() ^ Bitboards.bit(from);
+
+        if (exchangeGains == null) {
+            exchangeGains = new int[32];
+        }
+        int[] gain = exchangeGains;
+        gain[0] = 0;
+        int onSquare = EXCHANGE_VALUES[mover.getPieceType().ordinal()];
+        if (Move.isEnPassant(move)) {
+            occupied ^= Bitboards.bit(side == ChessGame.TeamColor.BLACK ? to - 8 : to + 8);
+            gain[0] = EXCHANGE_VALUES[ChessPiece.PieceType.PAWN.ordinal()];
+        } else if (getPiece(to) != null) {
+            gain[0] = EXCHANGE_VALUES[getPiece(to).getPieceType().ordinal()];
+        }
+        if (Move.isPromotion(move)) {
+            onSquare = EXCHANGE_VALUES[Move.promotion(move).ordinal()];
+            gain[0] += onSquare - EXCHANGE_VALUES[ChessPiece.PieceType.PAWN.ordinal()];
+        }
+
+        int depth = 0;
+        while (depth < gain.length - 1) {
+            long attackers = attackersTo(to, occupied, side) & occupied;
+            if (attackers == 0) {
+                break;
+            }
+            int attacker = -1;
+            ChessPiece.PieceType type = null;
+            for (ChessPiece.PieceType candidate : CHEAPEST_FIRST) {
+                long set = attackers & pieceSets[Bitboards.pieceIndex(side, candidate)];
+                if (set != 0) {
+                    attacker = Long.numberOfTrailingZeros(set);
+                    type = candidate;
+                    break;
+                }
+            }
+            ChessGame.TeamColor other = (side == ChessGame.TeamColor.WHITE)
+                    ? ChessGame.TeamColor.BLACK
+                    : ChessGame.TeamColor.WHITE;
+            long after = occupied ^ Bitboards.bit(attacker);
+            if (type == ChessPiece.PieceType.KING && (attackersTo(to, after, other) & after) != 0) {
+                break;
+            }
+
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            onSquare = EXCHANGE_VALUES[type.ordinal()];
+            occupied = after;
+            side = other;
+        }
+
+        // Walk back up the sequence: each side keeps the better of stopping or recapturing.
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * @return the team's pieces, king aside, that the other side can capture at a profit
+     * according to {@link #staticExchange}; a cheap way to flag blunders without a search
+     */
+    public long getHangingPieces(ChessGame.TeamColor team) {
+        ensureIndexed();
+        ChessGame.TeamColor enemy = (team == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK
+                : ChessGame.TeamColor.WHITE;
+        long occupied = getOccupancy();
+        long pieces = teamSets[team.ordinal()] & ~pieceSets[Bitboards.pieceIndex(team, ChessPiece.PieceType.KING)];
+        long hanging = 0L;
+
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            long attackers = attackersTo(square, occupied, enemy);
+            while (attackers != 0) {
+                int attacker = Long.numberOfTrailingZeros(attackers);
+                attackers &= attackers - 1;
+                if (staticExchange(Move.of(attacker, square, Move.CAPTURE)) > 0) {
+                    hanging |= Bitboards.bit(square);
+                    break;
                 }
             }
         }
-        return null;
+        return hanging;
     }
 
     public ChessBoard copy() {
         ChessBoard newBoard = new ChessBoard();
+        ensureIndexed();
 
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                newBoard.board[row - 1][col - 1] = board[row - 1][col - 1];
-            }
+        for (int row = 0; row < 8; row++) {
+            System.arraycopy(board[row], 0, newBoard.board[row], 0, 8);
         }
+        newBoard.pieceSets = pieceSets.clone();
+        newBoard.teamSets = teamSets.clone();
+        newBoard.zobristKey = zobristKey;
+        newBoard.pawnKey = pawnKey;
+        newBoard.midgameScore = midgameScore;
+        newBoard.endgameScore = endgameScore;
+        newBoard.phase = phase;
 
         return newBoard;
     }
 
+    /** Rebuilds the bitboard index from the array when it is missing (e.g. after Gson deserialization). */
+    private void ensureIndexed() {
+        if (pieceSets != null) {
+            return;
+        }
+        long[] pieces = new long[12];
+        long[] teams = new long[2];
+        zobristKey = 0L;
+        pawnKey = 0L;
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+
+        // Deserialized boards hold their own piece objects; swap in the shared ones while indexing.
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = getPiece(square);
+            if (piece != null) {
+                piece = ChessPiece.of(piece.getTeamColor(), piece.getPieceType());
+                board[square >>> 3][square & 7] = piece;
+                pieces[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())] |= Bitboards.bit(square);
+                teams[piece.getTeamColor().ordinal()] |= Bitboards.bit(square);
+                zobristKey ^= Zobrist.piece(piece, square);
+                updateScores(piece, square, 1);
+            }
+        }
+        teamSets = teams;
+        pieceSets = pieces;
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
@@ -72,6 +404,13 @@ public class ChessBoard {
                 board[row][col] = null;
             }
         }
+        pieceSets = new long[12];
+        teamSets = new long[2];
+        zobristKey = 0L;
+        pawnKey = 0L;
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
 
         ChessPiece.PieceType[] pieceOrder = {
                 ChessPiece.PieceType.ROOK,
@@ -85,10 +424,10 @@ public class ChessBoard {
         };
 
         for (int c = 1; c < 9; c++) {
-            addPiece(new ChessPosition(1, c), new ChessPiece(ChessGame.TeamColor.WHITE, pieceOrder[c - 1]));
-            addPiece(new ChessPosition(2, c), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
-            addPiece(new ChessPosition(7, c), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
-            addPiece(new ChessPosition(8, c), new ChessPiece(ChessGame.TeamColor.BLACK, pieceOrder[c - 1]));
+            addPiece(ChessPosition.of(1, c), ChessPiece.of(ChessGame.TeamColor.WHITE, pieceOrder[c - 1]));
+            addPiece(ChessPosition.of(2, c), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, c), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(8, c), ChessPiece.of(ChessGame.TeamColor.BLACK, pieceOrder[c - 1]));
         }
     }
 
@@ -97,10 +436,15 @@ public class ChessBoard {
         if (this == o) { return true; }
         if (o == null || getClass() != o.getClass()) { return false; }
         ChessBoard that = (ChessBoard) o;
-        return Arrays.deepEquals(board, that.board);
+        ensureIndexed();
+        that.ensureIndexed();
+        return zobristKey == that.zobristKey && Arrays.equals(pieceSets, that.pieceSets);
     }
 
     @Override
-    public int hashCode() { return Arrays.deepHashCode(board); }
+    public int hashCode() {
+        long key = getZobristKey();
+        return (int) (key ^ (key >>> 32));
+    }
 
 }
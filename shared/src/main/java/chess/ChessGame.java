@@ -1,8 +1,8 @@
 package chess;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Objects;
 
 /**
  * For a class that can manage a chess game, making moves on a board.
@@ -12,13 +12,26 @@ import java.util.Objects;
  */
 public class ChessGame {
 
-    private static final CalculateKingMoves KING_CALC = new CalculateKingMoves();
-    private static final CalculateBishopMoves BISHOP_CALC = new CalculateBishopMoves();
-    private static final CalculateKnightMoves KNIGHT_MOVES = new CalculateKnightMoves();
-    private static final CalculateRookMoves ROOK_CALC = new CalculateRookMoves();
+    private static final int CASTLING_FROM_PLACEMENT = -1;
+
     private Status status = Status.ONGOING;
     private TeamColor teamTurn;
     private ChessBoard board;
+    // Gson runs the no-arg constructor, so a game stored before this field existed keeps the
+    // initial value; castlingRights() then works the rights out from the board, as setBoard does.
+    private int castlingRights = CASTLING_FROM_PLACEMENT;
+    private int enPassantSquare = -1;
+
+    // Undo stack for applyMove/unmakeMove; records are reused, not reallocated.
+    private transient UndoRecord[] history;
+    private transient int historySize;
+    private transient MoveList scratchMoves;
+
+    // Legal moves and checkers for the side to move, valid while the position key is unchanged.
+    private transient MoveList sideToMoveMoves;
+    private transient long sideToMoveCheckers;
+    private transient long sideToMoveKey;
+    private transient boolean sideToMoveCached;
 
     public ChessGame() {
         this.board = new ChessBoard();
@@ -26,6 +39,14 @@ public class ChessGame {
         board.resetBoard();
     }
 
+    private ChessGame(ChessBoard board, TeamColor teamTurn, Status status, int castlingRights, int enPassantSquare) {
+        this.board = board;
+        this.teamTurn = teamTurn;
+        this.status = status;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+    }
+
     /** @return Which team's turn it is */
     public TeamColor getTeamTurn() {
         return teamTurn;
@@ -44,69 +65,12 @@ public class ChessGame {
     public enum TeamColor { WHITE, BLACK }
     public enum Status { ONGOING, CHECK, CHECKMATE, STALEMATE, RESIGNED }
 
-    private boolean isSquareUnderAttack(ChessPosition position, TeamColor team) {
+    private boolean isSquareUnderAttack(int square, TeamColor team) {
         TeamColor opponent = (team == TeamColor.WHITE)
                 ? TeamColor.BLACK
                 : TeamColor.WHITE;
 
-        int row = position.getRow();
-        int col = position.getColumn();
-        int r = (team == TeamColor.WHITE) ? 1 : -1;
-
-        Collection<ChessMove> pawnThreats = new HashSet<>();
-
-        if (ChessBoard.isValidPosition(row + r, col - 1)) {
-            pawnThreats.add(new ChessMove(position, new ChessPosition(row + r, col - 1), null));
-        }
-        if (ChessBoard.isValidPosition(row + r, col + 1)) {
-            pawnThreats.add(new ChessMove(position, new ChessPosition(row + r, col + 1), null));
-        }
-
-        if (containsThreateningPiece(
-                BISHOP_CALC.calculateMoves(board, position),
-                opponent,
-                ChessPiece.PieceType.BISHOP,
-                ChessPiece.PieceType.QUEEN)) {
-            return true;
-        }
-        if (containsThreateningPiece(
-                KNIGHT_MOVES.calculateMoves(board, position),
-                opponent,
-                ChessPiece.PieceType.KNIGHT)) {
-            return true;
-        }
-        if (containsThreateningPiece(
-                ROOK_CALC.calculateMoves(board, position),
-                opponent,
-                ChessPiece.PieceType.ROOK,
-                ChessPiece.PieceType.QUEEN)) {
-            return true;
-        }
-        if (containsThreateningPiece(
-                KING_CALC.calculateMoves(board, position),
-                opponent,
-                ChessPiece.PieceType.KING)) {
-            return true;
-        }
-        return containsThreateningPiece(pawnThreats, opponent, ChessPiece.PieceType.PAWN);
-    }
-
-    private boolean containsThreateningPiece(
-            Collection<ChessMove> moves,
-            TeamColor opponent,
-            ChessPiece.PieceType... threatTypes) {
-
-        for (ChessMove move : moves) {
-            ChessPiece piece = board.getPiece(move.getEndPosition());
-            if (piece != null && piece.getTeamColor() == opponent) {
-                for (ChessPiece.PieceType threatType : threatTypes) {
-                    if (piece.getPieceType() == threatType) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return board.isSquareAttacked(square, opponent);
     }
 
     /**
@@ -114,54 +78,117 @@ public class ChessGame {
      *
      * @param startPosition the piece to get valid moves for
      * @return Set of valid moves for requested piece, or null if no piece at
-     * startPosition
+     * startPosition or it is off the board
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
+        if (!isOnBoard(startPosition)) {
+            return null;
+        }
         ChessPiece piece = board.getPiece(startPosition);
         if (piece == null) {
             return null;
         }
 
-        Collection<ChessMove> allMoves = piece.pieceMoves(this.board, startPosition);
-        Collection<ChessMove> validMoves = new HashSet<>();
+        int square = Bitboards.square(startPosition);
+        if (piece.getTeamColor() == teamTurn) {
+            MoveList cached = sideToMoveMoves();
+            Collection<ChessMove> moves = new HashSet<>();
+            for (int i = 0; i < cached.size(); i++) {
+                if (Move.from(cached.get(i)) == square) {
+                    moves.add(Move.toChessMove(cached.get(i)));
+                }
+            }
+            return moves;
+        }
 
-        for (ChessMove move : allMoves) {
-            ChessGame gameCopy = copy();
+        MoveList moves = scratchMoves();
+        generate(piece.getTeamColor(), Bitboards.bit(square), moves);
+        return moves.toChessMoves(new HashSet<>());
+    }
 
-            gameCopy.board.addPiece(move.getEndPosition(), piece);
-            gameCopy.board.addPiece(startPosition, null);
+    /**
+     * Gets every legal move for the team whose turn it is, in a single generation pass.
+     *
+     * @return Set of legal moves, empty if the team is checkmated or stalemated
+     */
+    public Collection<ChessMove> legalMoves() { return sideToMoveMoves().toChessMoves(new HashSet<>()); }
 
-            if (piece.getPieceType() == ChessPiece.PieceType.PAWN
-                    && move.getPromotionPiece() != null) {
-                gameCopy.board.addPiece(
-                        move.getEndPosition(),
-                        new ChessPiece(piece.getTeamColor(), move.getPromotionPiece())
-                );
-            }
+    /**
+     * Appends every legal move for the team whose turn it is to {@code moves} in
+     * {@link Move} encoding, without allocating.
+     */
+    public void generateLegalMoves(MoveList moves) { generate(teamTurn, -1L, moves); }
 
-            ChessPosition kingPos = gameCopy.board.getKingPosition(piece.getTeamColor());
-            if (!gameCopy.isSquareUnderAttack(kingPos, piece.getTeamColor())) {
-                validMoves.add(move);
-            }
-        }
+    /** Appends the side to move's legal captures, en passant captures and promotions to {@code moves}. */
+    public void generateCaptures(MoveList moves) { generate(teamTurn, -1L, MoveGenerator.CAPTURES, moves); }
+
+    /** Appends the side to move's legal moves that neither capture nor promote, castling included. */
+    public void generateQuiets(MoveList moves) { generate(teamTurn, -1L, MoveGenerator.QUIETS, moves); }
 
-        return validMoves;
+    /**
+     * Checks a move remembered from another position (a hash or killer move) against the
+     * side to move's legal moves, generating only those of the piece on its start square.
+     *
+     * @return the legal move with the same squares and promotion, flags filled in for this
+     * position, or {@link Move#NONE} if there is none
+     */
+    public int findLegalMove(int move) {
+        ChessPiece piece = move == Move.NONE ? null : board.getPiece(Move.from(move));
+        if (piece == null || piece.getTeamColor() != teamTurn) {
+            return Move.NONE;
+        }
+        MoveList moves = scratchMoves();
+        generate(teamTurn, Bitboards.bit(Move.from(move)), moves);
+        return moves.find(move);
     }
 
     public boolean hasAnyValidMove(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    if (!validMoves(position).isEmpty()) {
-                        return true;
-                    }
-                }
+        if (teamColor == teamTurn) {
+            return !sideToMoveMoves().isEmpty();
+        }
+        MoveList moves = scratchMoves();
+        generate(teamColor, -1L, moves);
+        return !moves.isEmpty();
+    }
+
+    /** En passant is only open to the side to move; castling rights are kept per team. */
+    private long generate(TeamColor color, long fromMask, MoveList moves) {
+        return generate(color, fromMask, MoveGenerator.ALL, moves);
+    }
+
+    private long generate(TeamColor color, long fromMask, int kinds, MoveList moves) {
+        return MoveGenerator.generate(board, color, fromMask, castlingRights(),
+                color == teamTurn ? enPassantSquare : -1, kinds, moves);
+    }
+
+    /**
+     * Legal moves for the side to move, generated at most once per position. The cache is
+     * keyed by the Zobrist key rather than cleared on each move, so edits made straight to
+     * the board are picked up too.
+     */
+    private MoveList sideToMoveMoves() {
+        long key = getZobristKey();
+        if (!sideToMoveCached || sideToMoveKey != key) {
+            if (sideToMoveMoves == null) {
+                sideToMoveMoves = new MoveList();
             }
+            sideToMoveMoves.clear();
+            sideToMoveCheckers = generate(teamTurn, -1L, sideToMoveMoves);
+            sideToMoveKey = key;
+            sideToMoveCached = true;
         }
-        return false;
+        return sideToMoveMoves;
+    }
+
+    /** @return true if {@link #sideToMoveMoves()} is already filled for the current position */
+    private boolean sideToMoveCachedFor(long key) { return sideToMoveCached && sideToMoveKey == key; }
+
+    private MoveList scratchMoves() {
+        if (scratchMoves == null) {
+            scratchMoves = new MoveList();
+        }
+        scratchMoves.clear();
+        return scratchMoves;
     }
 
     /**
@@ -171,55 +198,218 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        ChessPosition start = move.getStartPosition();
-        ChessPosition end = move.getEndPosition();
-        Collection<ChessMove> moves = validMoves(start);
-        ChessPiece piece = board.getPiece(start);
+        if (!isOnBoard(move.getStartPosition()) || !isOnBoard(move.getEndPosition())) {
+            throw new InvalidMoveException("Move is off the board.");
+        }
+        int encoded = Move.fromChessMove(move);
+        ChessPiece piece = board.getPiece(Move.from(encoded));
 
-        if (moves == null) {
+        if (piece == null) {
             throw new InvalidMoveException("No piece at start position.");
         }
-        if (!moves.contains(move)) {
+        int legal;
+        if (piece.getTeamColor() == teamTurn && sideToMoveCachedFor(getZobristKey())) {
+            legal = sideToMoveMoves.find(encoded);
+        } else {
+            MoveList moves = scratchMoves();
+            generate(piece.getTeamColor(), Bitboards.bit(Move.from(encoded)), moves);
+            legal = moves.find(encoded);
+        }
+
+        if (legal == Move.NONE) {
             throw new InvalidMoveException("Illegal move for this piece.");
         }
         if (piece.getTeamColor() != teamTurn) {
             throw new InvalidMoveException("It's not " + piece.getTeamColor() + "'s turn.");
         }
 
-        board.addPiece(end, piece);
-        board.addPiece(start, null);
+        applyMove(legal);
+    }
 
-        if (piece.getPieceType() == ChessPiece.PieceType.PAWN
-                && move.getPromotionPiece() != null) {
-            board.addPiece(
-                    end,
-                    new ChessPiece(piece.getTeamColor(), move.getPromotionPiece())
-            );
+    /**
+     * Plays a move on this game's board without checking that it is legal, recording
+     * what is needed to take it back with {@link #unmakeMove()}. Used to try candidate
+     * moves in place instead of copying the game.
+     *
+     * Castling, en passant and double pushes are recognised from the board, since a
+     * ChessMove carries no flags.
+     *
+     * @param move a move whose start square holds a piece
+     * @throws IllegalArgumentException if either square is off the board
+     */
+    public void applyMove(ChessMove move) {
+        if (!isOnBoard(move.getStartPosition()) || !isOnBoard(move.getEndPosition())) {
+            throw new IllegalArgumentException("Move is off the board: " + move);
         }
+        applyMove(withSpecialFlags(Move.fromChessMove(move)));
+    }
 
+    /** Square encodings wrap, so positions from outside must be checked before they are encoded. */
+    private static boolean isOnBoard(ChessPosition position) {
+        return ChessBoard.isValidPosition(position.getRow(), position.getColumn());
+    }
+
+    private int withSpecialFlags(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null) {
+            return move;
+        }
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            return move | Move.CASTLE;
+        }
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            if (Math.abs(to - from) == 16) {
+                return move | Move.DOUBLE_PUSH;
+            }
+            if (to == enPassantSquare && Bitboards.column(from) != Bitboards.column(to)) {
+                return move | Move.CAPTURE | Move.EN_PASSANT;
+            }
+        }
+        return move;
+    }
+
+    /**
+     * Plays a {@link Move}-encoded move without checking that it is legal; see
+     * {@link #applyMove(ChessMove)}.
+     */
+    public void applyMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.getPiece(from);
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        int capturedSquare = Move.isEnPassant(move) ? Bitboards.square(Bitboards.row(from), Bitboards.column(to)) : to;
+
+        UndoRecord undo = pushUndo();
+        undo.move = move;
+        undo.moved = piece;
+        undo.captured = board.getPiece(capturedSquare);
+        undo.capturedSquare = capturedSquare;
+        undo.teamTurn = teamTurn;
+        undo.castlingRights = castlingRights();
+        undo.enPassantSquare = enPassantSquare;
+
+        board.setPiece(from, null);
+        if (capturedSquare != to) {
+            board.setPiece(capturedSquare, null);
+        }
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && promotion != null) {
+            board.setPiece(to, ChessPiece.of(piece.getTeamColor(), promotion));
+        } else {
+            board.setPiece(to, piece);
+        }
+        if (Move.isCastle(move)) {
+            moveCastlingRook(from, to, false);
+        }
+
+        castlingRights = CastlingRights.afterMove(castlingRights(), from, to);
+        enPassantSquare = (move & Move.DOUBLE_PUSH) != 0
+                ? capturableEnPassantSquare((from + to) >>> 1, piece.getTeamColor())
+                : -1;
         teamTurn = (teamTurn == TeamColor.WHITE)
                 ? TeamColor.BLACK
                 : TeamColor.WHITE;
     }
 
+    /**
+     * Takes back the most recent move made with {@link #applyMove(int)} or
+     * {@link #makeMove(ChessMove)}.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void unmakeMove() {
+        if (historySize == 0) {
+            throw new IllegalStateException("No move to unmake.");
+        }
+        UndoRecord undo = history[--historySize];
+        int from = Move.from(undo.move);
+        int to = Move.to(undo.move);
+
+        if (Move.isCastle(undo.move)) {
+            moveCastlingRook(from, to, true);
+        }
+        if (undo.capturedSquare != to) {
+            board.setPiece(to, null);
+        }
+        board.setPiece(undo.capturedSquare, undo.captured);
+        board.setPiece(from, undo.moved);
+        teamTurn = undo.teamTurn;
+        castlingRights = undo.castlingRights;
+        enPassantSquare = undo.enPassantSquare;
+    }
+
+    /** Moves the rook that castles with a king going from {@code from} to {@code to}, or puts it back. */
+    private void moveCastlingRook(int from, int to, boolean undo) {
+        int rookFrom = to > from ? from + 3 : from - 4;
+        int rookTo = to > from ? from + 1 : from - 1;
+        if (undo) {
+            board.setPiece(rookFrom, board.getPiece(rookTo));
+            board.setPiece(rookTo, null);
+        } else {
+            board.setPiece(rookTo, board.getPiece(rookFrom));
+            board.setPiece(rookFrom, null);
+        }
+    }
+
+    /**
+     * @return the square skipped by a double push if an enemy pawn could capture onto it,
+     * else -1, so positions that differ only in an unusable square hash alike
+     */
+    private int capturableEnPassantSquare(int square, TeamColor mover) {
+        TeamColor capturer = (mover == TeamColor.WHITE)
+                ? TeamColor.BLACK
+                : TeamColor.WHITE;
+        long pawns = board.getBitboard(capturer, ChessPiece.PieceType.PAWN);
+        return (Bitboards.pawnAttacks(square, mover) & pawns) != 0 ? square : -1;
+    }
+
+    private UndoRecord pushUndo() {
+        if (history == null) {
+            history = new UndoRecord[64];
+        } else if (historySize == history.length) {
+            history = Arrays.copyOf(history, historySize * 2);
+        }
+        UndoRecord undo = history[historySize];
+        if (undo == null) {
+            undo = new UndoRecord();
+            history[historySize] = undo;
+        }
+        historySize++;
+        return undo;
+    }
+
     /** Determines if the given team is in check. */
     public boolean isInCheck(TeamColor teamColor) {
-        return isSquareUnderAttack(board.getKingPosition(teamColor), teamColor);
+        int king = board.getKingSquare(teamColor);
+        return king >= 0 && isSquareUnderAttack(king, teamColor);
     }
 
     /** Determines if the given team is in checkmate. */
     public boolean isInCheckmate(TeamColor teamColor) {
+        if (teamColor == teamTurn) {
+            return sideToMoveMoves().isEmpty() && sideToMoveCheckers != 0;
+        }
         return isInCheck(teamColor) && !hasAnyValidMove(teamColor);
     }
 
     /** Determines if the given team is in stalemate. */
     public boolean isInStalemate(TeamColor teamColor) {
+        if (teamColor == teamTurn) {
+            return sideToMoveMoves().isEmpty() && sideToMoveCheckers == 0;
+        }
         return !isInCheck(teamColor) && !hasAnyValidMove(teamColor);
     }
 
-    /** Sets this game's chessboard. */
+    /**
+     * Sets this game's chessboard. With no history to go on, castling is allowed for every
+     * king and rook on their starting squares and no en passant capture is available.
+     */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        castlingRights = CastlingRights.forPlacement(board);
+        enPassantSquare = -1;
+        historySize = 0;
     }
 
     /** Gets the current chessboard. */
@@ -227,24 +417,58 @@ public class ChessGame {
         return board;
     }
 
-    public ChessGame copy() {
-        ChessGame newGame = new ChessGame();
-        newGame.teamTurn = this.teamTurn;
-        newGame.board = this.board.copy();
-        return newGame;
+    public ChessGame copy() { return new ChessGame(board.copy(), teamTurn, status, castlingRights(), enPassantSquare); }
+
+    /** @return the remaining castling rights: bits for white kingside, white queenside, black kingside, black queenside */
+    public int getCastlingRights() { return castlingRights(); }
+
+    void setCastlingRights(int castlingRights) { this.castlingRights = castlingRights; }
+
+    private int castlingRights() {
+        if (castlingRights == CASTLING_FROM_PLACEMENT) {
+            castlingRights = CastlingRights.forPlacement(board);
+        }
+        return castlingRights;
+    }
+
+    /** @return the square the side to move can capture onto en passant, or -1 */
+    public int getEnPassantSquare() { return enPassantSquare; }
+
+    /** Sets the en passant square, dropping it if no pawn of the side to move can use it. */
+    void setEnPassantSquare(int square) {
+        enPassantSquare = square < 0 ? -1 : capturableEnPassantSquare(square, teamTurn == TeamColor.WHITE
+                ? TeamColor.BLACK
+                : TeamColor.WHITE);
+    }
+
+    /**
+     * @return the Zobrist hash of the position: the board's incrementally maintained key
+     * combined with the side to move, castling rights and en passant file
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey() ^ Zobrist.CASTLING[castlingRights()];
+        if (enPassantSquare >= 0) {
+            key ^= Zobrist.EN_PASSANT_FILE[enPassantSquare & 7];
+        }
+        return teamTurn == TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key;
     }
 
     public Status getStatus() { return status; }
     public void setStatus(Status status) { this.status = status; }
+
+    /**
+     * Sets the status from the side to move's point of view; the side that just moved
+     * cannot be in check or out of moves after a legal move. Uses one cached generation,
+     * which also tells whether the king is in check.
+     */
     public void updateStatusAfterMove() {
-        if (isInCheckmate(TeamColor.WHITE) || isInCheckmate(TeamColor.BLACK)) {
-            status = Status.CHECKMATE;
-        } else if (isInStalemate(TeamColor.WHITE) || isInStalemate(TeamColor.BLACK)) {
-            status = Status.STALEMATE;
-        } else if (isInCheck(teamTurn)) {
-            status = Status.CHECK;
+        boolean noMoves = sideToMoveMoves().isEmpty();
+        boolean inCheck = sideToMoveCheckers != 0;
+
+        if (noMoves) {
+            status = inCheck ? Status.CHECKMATE : Status.STALEMATE;
         } else {
-            status = Status.ONGOING;
+            status = inCheck ? Status.CHECK : Status.ONGOING;
         }
     }
 
@@ -254,12 +478,17 @@ public class ChessGame {
         if (o == null || getClass() != o.getClass()) { return false; }
 
         ChessGame chessGame = (ChessGame) o;
-        return teamTurn == chessGame.teamTurn && Objects.equals(board, chessGame.board);
+        if (teamTurn != chessGame.teamTurn || castlingRights() != chessGame.castlingRights()
+                || enPassantSquare != chessGame.enPassantSquare) {
+            return false;
+        }
+        if (board == null || chessGame.board == null) { return board == chessGame.board; }
+        return board.getZobristKey() == chessGame.board.getZobristKey() && board.equals(chessGame.board);
     }
 
     @Override
     public int hashCode() {
-        int result = (teamTurn != null) ? teamTurn.hashCode() : 0;
+        int result = (teamTurn != null) ? teamTurn.ordinal() + 1 : 0;
         result = 31 * result + ((board != null) ? board.hashCode() : 0);
         return result;
     }
@@ -3,215 +3,119 @@ package chess;
 import java.util.Collection;
 import java.util.HashSet;
 
+/**
+ * Pseudo-legal moves for one kind of piece. Implementations hold no state, so
+ * {@link ChessPiece#getCalculator} hands out one shared instance per piece type.
+ */
 public interface ChessMovesCalculator {
 
-    Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition pos);
+    /** Adds the moves of the piece on {@code pos} to {@code moves} in {@link Move} encoding, without allocating. */
+    void calculateMoves(ChessBoard board, ChessPosition pos, MoveList moves);
 
-    /** Helper for sliding pieces (like rook, bishop, queen). */
-    default Collection<ChessMove> calculateMovesHelper(
-            ChessBoard board, ChessPosition pos, int[][] directions, Collection<ChessMove> moves) {
-
-        ChessPiece piece = board.getPiece(pos);
-        int row = pos.getRow();
-        int col = pos.getColumn();
-
-        for (int[] direction : directions) {
-            int dx = row + direction[0];
-            int dy = col + direction[1];
-
-            while (ChessBoard.isValidPosition(dx, dy)) {
-                ChessPosition newPosition = new ChessPosition(dx, dy);
-                boolean result = addValidMoveIfPossible(board, pos, newPosition, piece, moves);
-
-                if (!result) {
-                    break;
-                }
-
-                ChessPiece newPiece = board.getPiece(newPosition);
-                if (newPiece != null && piece.getTeamColor() == newPiece.getTeamColor()) {
-                    break;
-                }
-
-                dx += direction[0];
-                dy += direction[1];
-            }
-        }
-        return moves;
+    default Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition pos) {
+        MoveList moves = new MoveList(32);
+        calculateMoves(board, pos, moves);
+        return moves.toChessMoves(new HashSet<>());
     }
 
-    /** Helper for one-step moves (like King and Knight). */
-    default Collection<ChessMove> calculateSingleStepMoves(
-            ChessBoard board, ChessPosition pos, int[][] directions, Collection<ChessMove> moves) {
-
-        ChessPiece piece = board.getPiece(pos);
-        int row = pos.getRow();
-        int col = pos.getColumn();
-
-        for (int[] direction : directions) {
-            int dx = row + direction[0];
-            int dy = col + direction[1];
-
-            if (ChessBoard.isValidPosition(dx, dy)) {
-                ChessPosition newPosition = new ChessPosition(dx, dy);
-                addValidMoveIfPossible(board, pos, newPosition, piece, moves);
-            }
-        }
-        return moves;
+    /** @return a new calculator for the piece type; the implementations live in this file */
+    static ChessMovesCalculator create(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> new CalculateKingMoves();
+            case QUEEN -> new CalculateQueenMoves();
+            case BISHOP -> new CalculateBishopMoves();
+            case KNIGHT -> new CalculateKnightMoves();
+            case ROOK -> new CalculateRookMoves();
+            case PAWN -> new CalculatePawnMoves();
+        };
     }
 
-    static boolean addValidMoveIfPossible(
-            ChessBoard board, ChessPosition currentPos, ChessPosition newPos,
-            ChessPiece piece, Collection<ChessMove> moves) {
-
-        ChessPiece newPiece = board.getPiece(newPos);
-
-        if (newPiece != null && piece.getTeamColor() != newPiece.getTeamColor()) {
-            moves.add(new ChessMove(currentPos, newPos, null));
-            return false;
-        }
+    /** Adds a move to every square of an attack set not held by the mover's team. */
+    static void addMoves(ChessBoard board, int from, long attacks, MoveList moves) {
+        ChessGame.TeamColor color = board.getPiece(from).getTeamColor();
+        long targets = attacks & ~board.getOccupancy(color);
+        long occupied = board.getOccupancy();
 
-        if (newPiece == null) {
-            moves.add(new ChessMove(currentPos, newPos, null));
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            moves.add(Move.of(from, to, (occupied & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0));
+            targets &= targets - 1;
         }
-
-        return true;
     }
 }
 
 class CalculateKingMoves implements ChessMovesCalculator {
 
-    private static final int[][] DIRECTIONS = {
-            {0, 1}, {1, 1}, {1, 0}, {1, -1},
-            {0, -1}, {-1, -1}, {-1, 0}, {-1, 1}
-    };
-
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition pos) {
-        return calculateSingleStepMoves(board, pos, DIRECTIONS, new HashSet<>());
+    public void calculateMoves(ChessBoard board, ChessPosition pos, MoveList moves) {
+        int square = Bitboards.square(pos);
+        ChessMovesCalculator.addMoves(board, square, Bitboards.kingAttacks(square), moves);
     }
 }
 
 class CalculateQueenMoves implements ChessMovesCalculator {
 
-    private final CalculateBishopMoves bishopCalc = new CalculateBishopMoves();
-    private final CalculateRookMoves rookCalc = new CalculateRookMoves();
-
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition pos) {
-        Collection<ChessMove> moves = new HashSet<>();
-        moves.addAll(bishopCalc.calculateMoves(board, pos));
-        moves.addAll(rookCalc.calculateMoves(board, pos));
-        return moves;
+    public void calculateMoves(ChessBoard board, ChessPosition pos, MoveList moves) {
+        int square = Bitboards.square(pos);
+        long occupied = board.getOccupancy();
+        long attacks = Bitboards.bishopAttacks(square, occupied) | Bitboards.rookAttacks(square, occupied);
+        ChessMovesCalculator.addMoves(board, square, attacks, moves);
     }
 }
 
 class CalculateBishopMoves implements ChessMovesCalculator {
 
-    private static final int[][] DIRECTIONS = {
-            {1, 1}, {1, -1}, {-1, -1}, {-1, 1}
-    };
-
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition pos) {
-        return calculateMovesHelper(board, pos, DIRECTIONS, new HashSet<>());
+    public void calculateMoves(ChessBoard board, ChessPosition pos, MoveList moves) {
+        int square = Bitboards.square(pos);
+        ChessMovesCalculator.addMoves(board, square, Bitboards.bishopAttacks(square, board.getOccupancy()), moves);
     }
 }
 
 class CalculateKnightMoves implements ChessMovesCalculator {
 
-    private static final int[][] DIRECTIONS = {
-            {1, 2}, {2, 1}, {2, -1}, {1, -2},
-            {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}
-    };
-
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition pos) {
-        return calculateSingleStepMoves(board, pos, DIRECTIONS, new HashSet<>());
+    public void calculateMoves(ChessBoard board, ChessPosition pos, MoveList moves) {
+        int square = Bitboards.square(pos);
+        ChessMovesCalculator.addMoves(board, square, Bitboards.knightAttacks(square), moves);
     }
 }
 
 class CalculateRookMoves implements ChessMovesCalculator {
 
-    private static final int[][] DIRECTIONS = {
-            {0, 1}, {1, 0}, {0, -1}, {-1, 0}
-    };
-
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition pos) {
-        return calculateMovesHelper(board, pos, DIRECTIONS, new HashSet<>());
+    public void calculateMoves(ChessBoard board, ChessPosition pos, MoveList moves) {
+        int square = Bitboards.square(pos);
+        ChessMovesCalculator.addMoves(board, square, Bitboards.rookAttacks(square, board.getOccupancy()), moves);
     }
 }
 
 class CalculatePawnMoves implements ChessMovesCalculator {
 
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition pos) {
-        Collection<ChessMove> moves = new HashSet<>();
-        ChessPiece piece = board.getPiece(pos);
-        ChessGame.TeamColor color = piece.getTeamColor();
-
-        int row = pos.getRow();
-        int col = pos.getColumn();
-        int direction = (color == ChessGame.TeamColor.WHITE) ? 1 : -1;
-        boolean firstMove = (row == 2 && color == ChessGame.TeamColor.WHITE)
-                || (row == 7 && color == ChessGame.TeamColor.BLACK);
-
-        for (int offset = -1; offset <= 1; offset++) {
-            int newRow = row + direction;
-            int newCol = col + offset;
-
-            if (!ChessBoard.isValidPosition(newRow, newCol)) {
-                continue;
-            }
-
-            ChessPosition target = new ChessPosition(newRow, newCol);
-            ChessPiece targetPiece = board.getPiece(target);
-
-            if (offset == 0) {
-                handleForwardMoves(board, pos, target, piece, firstMove, direction, moves);
-                continue;
-            }
-
-            if (targetPiece != null && piece.getTeamColor() != targetPiece.getTeamColor()) {
-                calculatePromotionPiece(moves, pos, target);
+    public void calculateMoves(ChessBoard board, ChessPosition pos, MoveList moves) {
+        int from = Bitboards.square(pos);
+        ChessGame.TeamColor color = board.getPiece(from).getTeamColor();
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int step = white ? 8 : -8;
+        long occupied = board.getOccupancy();
+
+        int oneStep = from + step;
+        if (oneStep >= 0 && oneStep < 64 && (occupied & Bitboards.bit(oneStep)) == 0) {
+            MoveGenerator.addPawnMove(from, oneStep, 0, moves);
+
+            int twoStep = oneStep + step;
+            if (Bitboards.row(from) == (white ? 2 : 7) && (occupied & Bitboards.bit(twoStep)) == 0) {
+                moves.add(Move.of(from, twoStep, Move.DOUBLE_PUSH));
             }
         }
-        return moves;
-    }
-
-    private void handleForwardMoves(
-            ChessBoard board, ChessPosition start, ChessPosition oneStep,
-            ChessPiece piece, boolean firstMove, int direction, Collection<ChessMove> moves) {
-
-        if (board.getPiece(oneStep) != null) {
-            return;
-        }
 
-        calculatePromotionPiece(moves, start, oneStep);
-
-        if (!firstMove) {
-            return;
-        }
-
-        int twoStepRow = oneStep.getRow() + direction;
-        ChessPosition twoStep = new ChessPosition(twoStepRow, oneStep.getColumn());
-
-        if (ChessBoard.isValidPosition(twoStepRow, oneStep.getColumn())
-                && board.getPiece(twoStep) == null) {
-            moves.add(new ChessMove(start, twoStep, null));
-        }
-    }
-
-    private void calculatePromotionPiece(
-            Collection<ChessMove> moves, ChessPosition start, ChessPosition end) {
-
-        if (end.getRow() == 1 || end.getRow() == 8) {
-            for (ChessPiece.PieceType type : ChessPiece.PROMOTION_PIECES) {
-                moves.add(new ChessMove(start, end, type));
-            }
-            return;
+        long enemy = occupied & ~board.getOccupancy(color);
+        long captures = Bitboards.pawnAttacks(from, color) & enemy;
+        while (captures != 0) {
+            MoveGenerator.addPawnMove(from, Long.numberOfTrailingZeros(captures), Move.CAPTURE, moves);
+            captures &= captures - 1;
         }
-
-        moves.add(new ChessMove(start, end, null));
     }
 }
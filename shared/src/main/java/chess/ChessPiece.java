@@ -14,22 +14,36 @@ public class ChessPiece {
     private final ChessPiece.PieceType type;
     public final static ChessPiece.PieceType[] PROMOTION_PIECES = {PieceType.QUEEN, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK};
 
+    private static final ChessPiece[] SHARED = new ChessPiece[12];
+    private static final ChessMovesCalculator[] CALCULATORS = new ChessMovesCalculator[PieceType.values().length];
+
+    static {
+        for (PieceType type : PieceType.values()) {
+            CALCULATORS[type.ordinal()] = ChessMovesCalculator.create(type);
+        }
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                SHARED[Bitboards.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
     }
 
-    public ChessMovesCalculator getCalculator(ChessPiece.PieceType type) {
-        return switch (type) {
-            case KING -> new CalculateKingMoves();
-            case QUEEN -> new CalculateQueenMoves();
-            case BISHOP -> new CalculateBishopMoves();
-            case KNIGHT -> new CalculateKnightMoves();
-            case ROOK -> new CalculateRookMoves();
-            case PAWN -> new CalculatePawnMoves();
-        };
+    /**
+     * @return the shared instance for the colour and type. Pieces are immutable, so the
+     * board only ever needs these twelve.
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return SHARED[Bitboards.pieceIndex(pieceColor, type)];
     }
 
+    /** @return the shared, stateless calculator for the piece type */
+    public ChessMovesCalculator getCalculator(ChessPiece.PieceType type) { return CALCULATORS[type.ordinal()]; }
+
     /**
      * The various different chess piece options
      */
@@ -56,6 +70,11 @@ public class ChessPiece {
         return getCalculator(board.getPiece(myPosition).getPieceType()).calculateMoves(board, myPosition);
     }
 
+    /** Adds the same moves as {@link #pieceMoves} to {@code moves} in {@link Move} encoding, without allocating. */
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, MoveList moves) {
+        getCalculator(board.getPiece(myPosition).getPieceType()).calculateMoves(board, myPosition, moves);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -10,11 +10,33 @@ public class ChessPosition {
 
     private final int row, col;
 
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * @return the shared instance for an on-board square; coordinates off the board
+     * get a new instance, as the constructor would
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /** @return the shared instance for a square index (see {@link Bitboards}) */
+    static ChessPosition of(int square) { return SQUARES[square]; }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -0,0 +1,130 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, e.g.
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ * <p>
+ * The move counters are not tracked by {@link ChessGame}, so they are skipped
+ * when reading and written as "0 1". Missing castling and en passant fields
+ * read as "-".
+ */
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() { }
+
+    /**
+     * @throws IllegalArgumentException if the placement, side-to-move, castling or en passant field is malformed
+     */
+    public static ChessGame parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        String[] rows = fields[0].split("/");
+        if (rows.length != 8) {
+            throw new IllegalArgumentException("Expected 8 rows in FEN: " + fen);
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : rows[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                    continue;
+                }
+                if (col > 8) {
+                    throw new IllegalArgumentException("Row too long in FEN: " + fen);
+                }
+                board.addPiece(ChessPosition.of(row, col), pieceFor(c));
+                col++;
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("Row " + row + " does not have 8 squares in FEN: " + fen);
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        if (fields.length > 1) {
+            game.setTeamTurn(switch (fields[1]) {
+                case "w" -> ChessGame.TeamColor.WHITE;
+                case "b" -> ChessGame.TeamColor.BLACK;
+                default -> throw new IllegalArgumentException("Bad side to move in FEN: " + fen);
+            });
+        }
+        game.setCastlingRights(fields.length > 2 ? CastlingRights.fromFen(fields[2]) : CastlingRights.NONE);
+        if (fields.length > 3 && !fields[3].equals("-")) {
+            game.setEnPassantSquare(squareFor(fields[3], fen));
+        }
+        return game;
+    }
+
+    public static String toFen(ChessGame game) {
+        StringBuilder fen = new StringBuilder();
+        ChessBoard board = game.getBoard();
+
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(Bitboards.square(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(charFor(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w" : " b");
+        fen.append(' ').append(CastlingRights.toFen(game.getCastlingRights()));
+        int enPassant = game.getEnPassantSquare();
+        fen.append(' ').append(enPassant < 0 ? "-" : Bitboards.position(enPassant).printPosition());
+        fen.append(" 0 1");
+        return fen.toString();
+    }
+
+    private static int squareFor(String field, String fen) {
+        if (field.length() != 2 || field.charAt(0) < 'a' || field.charAt(0) > 'h'
+                || field.charAt(1) < '1' || field.charAt(1) > '8') {
+            throw new IllegalArgumentException("Bad en passant square in FEN: " + fen);
+        }
+        return Bitboards.square(field.charAt(1) - '0', field.charAt(0) - 'a' + 1);
+    }
+
+    private static ChessPiece pieceFor(char c) {
+        ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessPiece.PieceType type = switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Unknown piece '" + c + "' in FEN");
+        };
+        return ChessPiece.of(color, type);
+    }
+
+    private static char charFor(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case ROOK -> 'r';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+}
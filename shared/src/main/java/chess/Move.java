@@ -0,0 +1,78 @@
+package chess;
+
+/**
+ * Packs a move into an int so generators and search can pass moves around without
+ * allocating. {@link ChessMove} objects are only built at the API boundary.
+ * <pre>
+ *  bits  0-5   start square (see {@link Bitboards})
+ *  bits  6-11  end square
+ *  bits 12-14  promotion piece, PieceType ordinal + 1, or 0 for none
+ *  bits 15-18  flags
+ * </pre>
+ */
+public final class Move {
+
+    /** No move; a1 to a1 can never be generated. */
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLE = 1 << 18;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() { }
+
+    public static int of(int from, int to, int flags) { return from | (to << 6) | flags; }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return of(from, to, flags) | ((promotion.ordinal() + 1) << 12);
+    }
+
+    public static int from(int move) { return move & 63; }
+
+    public static int to(int move) { return (move >>> 6) & 63; }
+
+    /** @return the promotion piece, or null if the move is not a promotion */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = (move >>> 12) & 7;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    public static boolean isCapture(int move) { return (move & CAPTURE) != 0; }
+
+    public static boolean isPromotion(int move) { return (move & (7 << 12)) != 0; }
+
+    public static boolean isEnPassant(int move) { return (move & EN_PASSANT) != 0; }
+
+    public static boolean isCastle(int move) { return (move & CASTLE) != 0; }
+
+    /** @return true if the moves have the same squares and promotion, ignoring flags */
+    public static boolean sameMove(int a, int b) { return ((a ^ b) & 0x7FFF) == 0; }
+
+    /** Encodes a ChessMove without flags; match it against generated moves with {@link #sameMove}. */
+    public static int fromChessMove(ChessMove move) {
+        int from = Bitboards.square(move.getStartPosition());
+        int to = Bitboards.square(move.getEndPosition());
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        return promotion == null ? of(from, to, 0) : of(from, to, promotion, 0);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboards.position(from(move)), Bitboards.position(to(move)), promotion(move));
+    }
+
+    /** @return the move in coordinate notation, e.g. "e2e4" or "e7e8q" */
+    public static String toString(int move) {
+        ChessPiece.PieceType promotion = promotion(move);
+        String text = Bitboards.position(from(move)).printPosition() + Bitboards.position(to(move)).printPosition();
+        return promotion == null ? text : text + switch (promotion) {
+            case QUEEN -> "q";
+            case ROOK -> "r";
+            case BISHOP -> "b";
+            case KNIGHT -> "n";
+            default -> "?";
+        };
+    }
+}
@@ -0,0 +1,259 @@
+package chess;
+
+/**
+ * Generates strictly legal moves straight from the bitboards.
+ * <p>
+ * The checking pieces and the pieces pinned to the king are worked out once per call. With
+ * those known, a move only has to land on a square that answers the check (capture or block)
+ * and, if the piece is pinned, stay on the line through its king. King moves are tested against
+ * attacks with the king lifted off the board so it cannot step back along a checking ray.
+ * <p>
+ * Castling needs the rights bit, an empty path and no attack on the squares the king
+ * starts on, crosses and lands on. En passant is checked by lifting both pawns off the
+ * board and looking for a slider that would then see the king, which covers the rare
+ * case of two pawns shielding the king along a row.
+ * <p>
+ * Captures (with promotions) and quiet moves can be generated separately, so a search
+ * that cuts off on a capture never pays for the quiet moves.
+ */
+final class MoveGenerator {
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = {
+            ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.QUEEN
+    };
+
+    /** Captures, en passant and every promotion, whether or not it captures. */
+    static final int CAPTURES = 1;
+    /** Non-capturing, non-promoting moves, castling included. */
+    static final int QUIETS = 2;
+    static final int ALL = CAPTURES | QUIETS;
+
+    private MoveGenerator() { }
+
+    /** Generates every legal move; see {@link #generate(ChessBoard, ChessGame.TeamColor, long, int, int, int, MoveList)}. */
+    static long generate(ChessBoard board, ChessGame.TeamColor us, long fromMask, int castling, int enPassant,
+                         MoveList moves) {
+        return generate(board, us, fromMask, castling, enPassant, ALL, moves);
+    }
+
+    /**
+     * Adds the legal moves of the team's pieces standing on {@code fromMask} to {@code moves}.
+     *
+     * @param board    position to generate moves in
+     * @param us       team whose moves are generated
+     * @param fromMask squares whose pieces should be considered, or -1 for all
+     * @param castling {@link CastlingRights} bits still available
+     * @param enPassant square a pawn may capture onto en passant, or -1 for none
+     * @param kinds    {@link #CAPTURES}, {@link #QUIETS} or {@link #ALL}
+     * @param moves    buffer receiving the encoded moves
+     * @return the enemy pieces giving check, so callers can tell mate from stalemate without another scan
+     */
+    static long generate(ChessBoard board, ChessGame.TeamColor us, long fromMask, int castling, int enPassant,
+                         int kinds, MoveList moves) {
+        ChessGame.TeamColor them = (us == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK
+                : ChessGame.TeamColor.WHITE;
+        long own = board.getOccupancy(us);
+        long occupied = own | board.getOccupancy(them);
+        long kings = board.getBitboard(us, ChessPiece.PieceType.KING);
+        long landing = ((kinds & CAPTURES) != 0 ? occupied & ~own : 0L) | ((kinds & QUIETS) != 0 ? ~occupied : 0L);
+
+        long targets = ~own;
+        long pinned = 0L;
+        long checkers = 0L;
+        int king = -1;
+
+        if (kings != 0) {
+            king = Long.numberOfTrailingZeros(kings);
+            checkers = board.attackersTo(king, occupied, them);
+
+            if ((fromMask & kings) != 0) {
+                addKingMoves(board, king, landing, occupied, them, moves);
+                if (checkers == 0 && castling != CastlingRights.NONE && (kinds & QUIETS) != 0) {
+                    addCastlingMoves(board, us, king, castling, occupied, them, moves);
+                }
+            }
+            if (Long.bitCount(checkers) > 1) {
+                return checkers;
+            }
+            if (checkers != 0) {
+                targets &= checkers | Bitboards.between(king, Long.numberOfTrailingZeros(checkers));
+            }
+            pinned = pinnedPieces(board, king, own, occupied, them);
+        }
+
+        for (ChessPiece.PieceType type : PIECE_TYPES) {
+            long pieces = board.getBitboard(us, type) & fromMask;
+            while (pieces != 0) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+
+                long attacks = switch (type) {
+                    case KNIGHT -> Bitboards.knightAttacks(from);
+                    case BISHOP -> Bitboards.bishopAttacks(from, occupied);
+                    case ROOK -> Bitboards.rookAttacks(from, occupied);
+                    default -> Bitboards.queenAttacks(from, occupied);
+                };
+                attacks &= targets & landing;
+                if ((pinned & Bitboards.bit(from)) != 0) {
+                    attacks &= Bitboards.line(king, from);
+                }
+                addMoves(from, attacks, occupied, moves);
+            }
+        }
+
+        addPawnMoves(board, us, fromMask, targets, pinned, king, occupied, kinds, moves);
+        if (enPassant >= 0 && (kinds & CAPTURES) != 0) {
+            addEnPassantMoves(board, us, them, fromMask, targets, king, occupied, enPassant, moves);
+        }
+        return checkers;
+    }
+
+    private static void addKingMoves(ChessBoard board, int king, long landing, long occupied,
+                                     ChessGame.TeamColor them, MoveList moves) {
+        long withoutKing = occupied ^ Bitboards.bit(king);
+        long attacks = Bitboards.kingAttacks(king) & landing;
+
+        while (attacks != 0) {
+            int to = Long.numberOfTrailingZeros(attacks);
+            attacks &= attacks - 1;
+
+            if (board.attackersTo(to, withoutKing, them) == 0) {
+                moves.add(Move.of(king, to, (occupied & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0));
+            }
+        }
+    }
+
+    private static void addCastlingMoves(ChessBoard board, ChessGame.TeamColor us, int king, int castling,
+                                         long occupied, ChessGame.TeamColor them, MoveList moves) {
+        if (king != CastlingRights.kingHome(us)) {
+            return;
+        }
+        long rooks = board.getBitboard(us, ChessPiece.PieceType.ROOK);
+
+        if ((castling & CastlingRights.kingside(us)) != 0 && (rooks & Bitboards.bit(king + 3)) != 0
+                && (Bitboards.between(king, king + 3) & occupied) == 0
+                && board.attackersTo(king + 1, occupied, them) == 0
+                && board.attackersTo(king + 2, occupied, them) == 0) {
+            moves.add(Move.of(king, king + 2, Move.CASTLE));
+        }
+        if ((castling & CastlingRights.queenside(us)) != 0 && (rooks & Bitboards.bit(king - 4)) != 0
+                && (Bitboards.between(king, king - 4) & occupied) == 0
+                && board.attackersTo(king - 1, occupied, them) == 0
+                && board.attackersTo(king - 2, occupied, them) == 0) {
+            moves.add(Move.of(king, king - 2, Move.CASTLE));
+        }
+    }
+
+    private static void addEnPassantMoves(ChessBoard board, ChessGame.TeamColor us, ChessGame.TeamColor them,
+                                          long fromMask, long targets, int king, long occupied, int enPassant,
+                                          MoveList moves) {
+        int captured = enPassant + (us == ChessGame.TeamColor.WHITE ? -8 : 8);
+        if ((board.getBitboard(them, ChessPiece.PieceType.PAWN) & Bitboards.bit(captured)) == 0
+                || (targets & (Bitboards.bit(enPassant) | Bitboards.bit(captured))) == 0) {
+            return;
+        }
+        long pawns = board.getBitboard(us, ChessPiece.PieceType.PAWN) & fromMask
+                & Bitboards.pawnAttacks(enPassant, them);
+
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+
+            long after = (occupied ^ Bitboards.bit(from) ^ Bitboards.bit(captured)) | Bitboards.bit(enPassant);
+            if (king < 0 || !slidersSeeKing(board, king, after, them)) {
+                moves.add(Move.of(from, enPassant, Move.CAPTURE | Move.EN_PASSANT));
+            }
+        }
+    }
+
+    private static boolean slidersSeeKing(ChessBoard board, int king, long occupied, ChessGame.TeamColor them) {
+        long queens = board.getBitboard(them, ChessPiece.PieceType.QUEEN);
+        return (Bitboards.rookAttacks(king, occupied) & (board.getBitboard(them, ChessPiece.PieceType.ROOK) | queens)) != 0
+                || (Bitboards.bishopAttacks(king, occupied) & (board.getBitboard(them, ChessPiece.PieceType.BISHOP) | queens)) != 0;
+    }
+
+    private static void addPawnMoves(ChessBoard board, ChessGame.TeamColor us, long fromMask, long targets,
+                                     long pinned, int king, long occupied, int kinds, MoveList moves) {
+        boolean white = us == ChessGame.TeamColor.WHITE;
+        boolean captures = (kinds & CAPTURES) != 0;
+        boolean quiets = (kinds & QUIETS) != 0;
+        // Pushes onto the last rank promote, so they belong with the captures.
+        long pushes = (captures ? Bitboards.RANK_1 | Bitboards.RANK_8 : 0L)
+                | (quiets ? ~(Bitboards.RANK_1 | Bitboards.RANK_8) : 0L);
+        int step = white ? 8 : -8;
+        int startRow = white ? 2 : 7;
+        long enemy = board.getOccupancy(white ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        long pawns = board.getBitboard(us, ChessPiece.PieceType.PAWN) & fromMask;
+
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+
+            long allowed = targets;
+            if ((pinned & Bitboards.bit(from)) != 0) {
+                allowed &= Bitboards.line(king, from);
+            }
+
+            int oneStep = from + step;
+            if (oneStep >= 0 && oneStep < 64 && (occupied & Bitboards.bit(oneStep)) == 0) {
+                if ((allowed & pushes & Bitboards.bit(oneStep)) != 0) {
+                    addPawnMove(from, oneStep, 0, moves);
+                }
+                int twoStep = oneStep + step;
+                if (quiets && Bitboards.row(from) == startRow && (occupied & Bitboards.bit(twoStep)) == 0
+                        && (allowed & Bitboards.bit(twoStep)) != 0) {
+                    moves.add(Move.of(from, twoStep, Move.DOUBLE_PUSH));
+                }
+            }
+
+            long attacks = captures ? Bitboards.pawnAttacks(from, us) & enemy & allowed : 0L;
+            while (attacks != 0) {
+                addPawnMove(from, Long.numberOfTrailingZeros(attacks), Move.CAPTURE, moves);
+                attacks &= attacks - 1;
+            }
+        }
+    }
+
+    /** Adds a pawn move, expanded into one move per promotion piece on the last rank. */
+    static void addPawnMove(int from, int to, int flags, MoveList moves) {
+        if (to < 8 || to >= 56) {
+            for (ChessPiece.PieceType type : ChessPiece.PROMOTION_PIECES) {
+                moves.add(Move.of(from, to, type, flags));
+            }
+            return;
+        }
+        moves.add(Move.of(from, to, flags));
+    }
+
+    private static void addMoves(int from, long targets, long occupied, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            moves.add(Move.of(from, to, (occupied & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0));
+            targets &= targets - 1;
+        }
+    }
+
+    /** Own pieces that are the only blocker between the king and an enemy slider. */
+    private static long pinnedPieces(ChessBoard board, int king, long own, long occupied, ChessGame.TeamColor them) {
+        long enemy = occupied & ~own;
+        long queens = board.getBitboard(them, ChessPiece.PieceType.QUEEN);
+        long snipers = (Bitboards.rookAttacks(king, enemy) & (board.getBitboard(them, ChessPiece.PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(king, enemy) & (board.getBitboard(them, ChessPiece.PieceType.BISHOP) | queens));
+        long pinned = 0L;
+
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long blockers = Bitboards.between(king, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & own;
+            }
+        }
+        return pinned;
+    }
+}
@@ -0,0 +1,56 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A growable buffer of {@link Move}-encoded ints that generators fill in place.
+ * Callers keep one per ply and {@link #clear()} it rather than allocating.
+ */
+public final class MoveList {
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() { this(256); }
+
+    public MoveList(int capacity) { moves = new int[capacity]; }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) { return moves[index]; }
+
+    public void set(int index, int move) { moves[index] = move; }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public void clear() { size = 0; }
+
+    /** Drops every move from index {@code newSize} on. */
+    public void truncate(int newSize) { size = Math.min(size, newSize); }
+
+    /** @return the generated move matching the squares and promotion of {@code move}, or {@link Move#NONE} */
+    public int find(int move) {
+        for (int i = 0; i < size; i++) {
+            if (Move.sameMove(moves[i], move)) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /** Materialises the moves as ChessMove objects for the public API. */
+    public <T extends Collection<ChessMove>> T toChessMoves(T out) {
+        for (int i = 0; i < size; i++) {
+            out.add(Move.toChessMove(moves[i]));
+        }
+        return out;
+    }
+}
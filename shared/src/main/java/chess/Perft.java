@@ -0,0 +1,133 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft"). The counts for
+ * well-known positions are published, so any mismatch points at a move generation bug, and
+ * the time taken gives a nodes-per-second figure for the generator and make/unmake path.
+ * <p>
+ * Usage: {@code java -cp shared/target/classes chess.Perft [depth [fen]] [--divide]}, or
+ * {@code chess.Perft --suite [maxDepth]} to check every reference position.
+ */
+public final class Perft {
+
+    /** A published position with its node counts; {@code nodes[i]} is the count at depth i + 1. */
+    public record Reference(String name, String fen, long... nodes) { }
+
+    public static final List<Reference> REFERENCE_POSITIONS = List.of(
+            new Reference("initial", Fen.START, 20, 400, 8902, 197281, 4865609),
+            new Reference("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    48, 2039, 97862, 4085603),
+            new Reference("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 191, 2812, 43238, 674624),
+            new Reference("position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6, 264, 9467, 422333),
+            new Reference("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44, 1486, 62379, 2103487),
+            new Reference("position 6",
+                    "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", 46, 2079, 89890, 3894594)
+    );
+
+    private final ChessGame game;
+    private final MoveList[] buffers;
+
+    public Perft(ChessGame game, int maxDepth) {
+        this.game = game;
+        this.buffers = new MoveList[Math.max(maxDepth, 1)];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new MoveList();
+        }
+    }
+
+    /** @return the number of leaf nodes {@code depth} plies below the current position */
+    public long count(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = buffers[depth - 1];
+        moves.clear();
+        game.generateLegalMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.applyMove(moves.get(i));
+            nodes += count(depth - 1);
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /** @return the node count below each root move, keyed by the move in coordinate notation */
+    public Map<String, Long> divide(int depth) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            game.applyMove(moves.get(i));
+            counts.put(Move.toString(moves.get(i)), count(depth - 1));
+            game.unmakeMove();
+        }
+        return counts;
+    }
+
+    public static long perft(String fen, int depth) { return new Perft(Fen.parse(fen), depth).count(depth); }
+
+    public static void main(String[] args) {
+        List<String> options = new ArrayList<>(List.of(args));
+        boolean divide = options.remove("--divide");
+
+        if (options.remove("--suite")) {
+            int maxDepth = options.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(options.get(0));
+            runSuite(maxDepth);
+            return;
+        }
+
+        int depth = options.isEmpty() ? 5 : Integer.parseInt(options.get(0));
+        String fen = options.size() > 1 ? String.join(" ", options.subList(1, options.size())) : Fen.START;
+        Perft perft = new Perft(Fen.parse(fen), depth);
+
+        long start = System.nanoTime();
+        long nodes;
+        if (divide) {
+            nodes = 0;
+            for (Map.Entry<String, Long> entry : perft.divide(depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else {
+            nodes = perft.count(depth);
+        }
+        report(depth, nodes, System.nanoTime() - start);
+    }
+
+    private static void runSuite(int maxDepth) {
+        boolean allPassed = true;
+        for (Reference reference : REFERENCE_POSITIONS) {
+            for (int depth = 1; depth <= Math.min(maxDepth, reference.nodes().length); depth++) {
+                long start = System.nanoTime();
+                long nodes = perft(reference.fen(), depth);
+                long expected = reference.nodes()[depth - 1];
+
+                System.out.print(reference.name() + " ");
+                report(depth, nodes, System.nanoTime() - start);
+                if (nodes != expected) {
+                    System.out.println("  MISMATCH: expected " + expected);
+                    allPassed = false;
+                }
+            }
+        }
+        System.out.println(allPassed ? "All reference counts match" : "Reference counts differ");
+    }
+
+    private static void report(int depth, long nodes, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("depth %d: %,d nodes in %.3fs (%,.0f nps)%n", depth, nodes, seconds, nodes / Math.max(seconds, 1e-9));
+    }
+}
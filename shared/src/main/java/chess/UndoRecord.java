@@ -0,0 +1,19 @@
+package chess;
+
+/**
+ * What {@link ChessGame#unmakeMove()} needs to put a position back after
+ * {@link ChessGame#applyMove(int)}. Records are pooled per ply and
+ * overwritten in place, so making and unmaking moves does not allocate.
+ */
+final class UndoRecord {
+
+    int move;
+    ChessPiece moved;
+    ChessPiece captured;
+    /** Where the captured piece stood; differs from the end square only for en passant. */
+    int capturedSquare;
+    ChessGame.TeamColor teamTurn;
+    int castlingRights;
+    int enPassantSquare;
+
+}
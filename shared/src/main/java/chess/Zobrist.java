@@ -0,0 +1,50 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of one key per
+ * (piece, square) pair plus a key for the side to move, so a move updates it with
+ * a couple of XORs instead of rehashing the board. Castling rights and the en passant
+ * file each get their own keys.
+ */
+final class Zobrist {
+
+    /** Indexed by {@link Bitboards#pieceIndex} * 64 + square. */
+    static final long[] PIECE_SQUARE = new long[12 * 64];
+    static final long BLACK_TO_MOVE;
+    /** Indexed by the {@link CastlingRights} bits; no rights hashes to 0. */
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        long seed = 0x5A17B0A2D3C4E5F6L;
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            seed = next(seed);
+            PIECE_SQUARE[i] = mix(seed);
+        }
+        seed = next(seed);
+        BLACK_TO_MOVE = mix(seed);
+        for (int i = 1; i < CASTLING.length; i++) {
+            seed = next(seed);
+            CASTLING[i] = mix(seed);
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            seed = next(seed);
+            EN_PASSANT_FILE[i] = mix(seed);
+        }
+    }
+
+    private Zobrist() { }
+
+    static long piece(ChessPiece piece, int square) {
+        return PIECE_SQUARE[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType()) * 64 + square];
+    }
+
+    /** splitmix64, so the keys are the same on every start and on client and server. */
+    private static long next(long seed) { return seed + 0x9E3779B97F4A7C15L; }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
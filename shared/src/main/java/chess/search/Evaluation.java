@@ -0,0 +1,97 @@
+package chess.search;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Static evaluation used by {@link Search}, in centipawns from the side to move's point of view.
+ * <p>
+ * Material and piece-square scores come ready-summed from {@link ChessBoard}, which updates them
+ * on every piece placed or removed, so making and unmaking a move keeps them current for free.
+ * Pawn structure (doubled, isolated and passed pawns) is cached in a {@link PawnHashTable}.
+ * Every term has a middlegame and an endgame value, blended by how much non-pawn material
+ * is left on the board.
+ * <p>
+ * Not thread-safe because of the pawn cache; each {@link Search} has its own.
+ */
+public final class Evaluation {
+
+    private static final int DOUBLED_MIDGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDGAME = -12;
+    private static final int ISOLATED_ENDGAME = -8;
+    /** Passed pawn bonus by rank counted from the pawn's own side, 0 being its back rank. */
+    private static final int[] PASSED_MIDGAME = {0, 5, 10, 15, 25, 45, 70, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 15, 25, 45, 75, 120, 0};
+
+    private static final int PAWN_TABLE_ENTRIES = 1 << 14;
+
+    private final PawnHashTable pawnTable = new PawnHashTable(PAWN_TABLE_ENTRIES);
+
+    /** @see ChessBoard#pieceValue */
+    public static int pieceValue(ChessPiece.PieceType type) { return ChessBoard.pieceValue(type); }
+
+    public int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        long pawns = pawnTable.score(board);
+        int midgame = board.getMidgameScore() + PawnHashTable.midgame(pawns);
+        int endgame = board.getEndgameScore() + PawnHashTable.endgame(pawns);
+        int phase = Math.min(board.getPhase(), ChessBoard.MAX_PHASE);
+
+        int score = (midgame * phase + endgame * (ChessBoard.MAX_PHASE - phase)) / ChessBoard.MAX_PHASE;
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /** @return the fraction of evaluations whose pawn terms came from the cache */
+    public double pawnHitRate() { return pawnTable.hitRate(); }
+
+    /** Scores the pawns alone, from white's side, packed as in {@link PawnHashTable}. */
+    static long pawnStructure(ChessBoard board) {
+        long white = board.getBitboard(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        long black = board.getBitboard(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        long whiteScore = pawnStructure(white, black, true);
+        long blackScore = pawnStructure(black, white, false);
+        return PawnHashTable.pack(PawnHashTable.midgame(whiteScore) - PawnHashTable.midgame(blackScore),
+                PawnHashTable.endgame(whiteScore) - PawnHashTable.endgame(blackScore));
+    }
+
+    private static long pawnStructure(long own, long enemy, boolean white) {
+        int midgame = 0;
+        int endgame = 0;
+
+        for (int file = 0; file < 8; file++) {
+            int count = Long.bitCount(own & (Bitboards.FILE_A << file));
+            if (count > 1) {
+                midgame += (count - 1) * DOUBLED_MIDGAME;
+                endgame += (count - 1) * DOUBLED_ENDGAME;
+            }
+        }
+
+        long pawns = own;
+        while (pawns != 0) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+
+            int file = square & 7;
+            long neighbours = (file > 0 ? Bitboards.FILE_A << (file - 1) : 0L)
+                    | (file < 7 ? Bitboards.FILE_A << (file + 1) : 0L);
+            if ((own & neighbours) == 0) {
+                midgame += ISOLATED_MIDGAME;
+                endgame += ISOLATED_ENDGAME;
+            }
+
+            int row = square >>> 3;
+            long ahead = white
+                    ? (row == 7 ? 0L : -1L << ((row + 1) * 8))
+                    : (1L << (row * 8)) - 1;
+            if ((enemy & ahead & (neighbours | Bitboards.FILE_A << file)) == 0) {
+                int rank = white ? row : 7 - row;
+                midgame += PASSED_MIDGAME[rank];
+                endgame += PASSED_ENDGAME[rank];
+            }
+        }
+        return PawnHashTable.pack(midgame, endgame);
+    }
+}
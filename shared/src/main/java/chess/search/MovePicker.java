@@ -0,0 +1,217 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+
+/**
+ * Hands out the legal moves of one node best-first, generating them in stages so a node that
+ * cuts off early never generates the rest:
+ * <ol>
+ *   <li>the hash or principal variation move, checked for legality on its own;</li>
+ *   <li>captures and promotions, most valuable victim first, then least valuable attacker;</li>
+ *   <li>the killer moves of the ply, quiet moves that cut off in a sibling node;</li>
+ *   <li>the remaining quiet moves, by their butterfly history score;</li>
+ *   <li>captures that lose material by {@link chess.ChessBoard#staticExchange static exchange}.</li>
+ * </ol>
+ * Exchanges are only evaluated for captures by a piece worth more than its victim, as the
+ * others cannot lose material. When picking captures only, losing captures are dropped.
+ * Within a stage the next move is found by selection instead of sorting the whole stage, since
+ * most nodes only look at its first few moves. {@link Search} keeps one picker per ply.
+ */
+final class MovePicker {
+
+    private static final int HASH = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int CAPTURES = 2;
+    private static final int KILLERS = 3;
+    private static final int GENERATE_QUIETS = 4;
+    private static final int QUIETS = 5;
+    private static final int BAD_CAPTURES = 6;
+    private static final int DONE = 7;
+
+    private final MoveList moves = new MoveList();
+    private final MoveList badCaptures = new MoveList();
+    private final int[] history;
+    private int[] scores = new int[256];
+
+    private ChessGame game;
+    private int stage;
+    private int index;
+    private int hashMove;
+    private int[] killers;
+    private int killerIndex;
+    private final int[] killersPlayed = new int[Search.KILLERS];
+    private boolean capturesOnly;
+    private int badCaptureIndex;
+
+    /** @param history butterfly history scores, indexed by {@link #historyIndex} */
+    MovePicker(int[] history) { this.history = history; }
+
+    /**
+     * Starts picking for the game's current position.
+     *
+     * @param hashMove     move to try first, not yet checked for legality, or {@link Move#NONE}
+     * @param killers      killer moves of the ply, {@link Move#NONE} where empty
+     * @param capturesOnly stop after the captures and promotions, as quiescence search does
+     */
+    void reset(ChessGame game, int hashMove, int[] killers, boolean capturesOnly) {
+        this.game = game;
+        this.hashMove = hashMove;
+        this.killers = killers;
+        this.capturesOnly = capturesOnly;
+        stage = HASH;
+        killerIndex = 0;
+        badCaptures.clear();
+        badCaptureIndex = 0;
+        for (int i = 0; i < killersPlayed.length; i++) {
+            killersPlayed[i] = Move.NONE;
+        }
+    }
+
+    /** @return the next legal move, or {@link Move#NONE} once every move has been picked */
+    int next() {
+        if (stage == HASH) {
+            stage = GENERATE_CAPTURES;
+            hashMove = game.findLegalMove(hashMove);
+            if (capturesOnly && !Move.isCapture(hashMove) && !Move.isPromotion(hashMove)) {
+                hashMove = Move.NONE;
+            }
+            if (hashMove != Move.NONE) {
+                return hashMove;
+            }
+        }
+        if (stage == GENERATE_CAPTURES) {
+            moves.clear();
+            game.generateCaptures(moves);
+            scoreCaptures();
+            stage = CAPTURES;
+        }
+        if (stage == CAPTURES) {
+            int move;
+            while ((move = pickBest()) != Move.NONE) {
+                if (!losesMaterial(move)) {
+                    return move;
+                }
+                badCaptures.add(move);
+            }
+            stage = capturesOnly ? DONE : KILLERS;
+        }
+        if (stage == KILLERS) {
+            while (killerIndex < killers.length) {
+                int killer = game.findLegalMove(killers[killerIndex]);
+                if (killer != Move.NONE && !Move.isCapture(killer) && !Move.isPromotion(killer)
+                        && !Move.sameMove(killer, hashMove)) {
+                    killersPlayed[killerIndex++] = killer;
+                    return killer;
+                }
+                killerIndex++;
+            }
+            stage = GENERATE_QUIETS;
+        }
+        if (stage == GENERATE_QUIETS) {
+            moves.clear();
+            game.generateQuiets(moves);
+            scoreQuiets();
+            stage = QUIETS;
+        }
+        if (stage == QUIETS) {
+            int move = pickBest();
+            if (move != Move.NONE) {
+                return move;
+            }
+            stage = BAD_CAPTURES;
+        }
+        if (stage == BAD_CAPTURES) {
+            if (badCaptureIndex < badCaptures.size()) {
+                return badCaptures.get(badCaptureIndex++);
+            }
+            stage = DONE;
+        }
+        return Move.NONE;
+    }
+
+    private boolean losesMaterial(int move) {
+        if (!Move.isCapture(move) || Move.isEnPassant(move)) {
+            return false;
+        }
+        ChessBoard board = game.getBoard();
+        int attackerValue = Evaluation.pieceValue(board.getPiece(Move.from(move)).getPieceType());
+        int victimValue = Evaluation.pieceValue(board.getPiece(Move.to(move)).getPieceType());
+        return attackerValue > victimValue && board.staticExchange(move) < 0;
+    }
+
+    /** @return the index of the move's history score for the side making it */
+    static int historyIndex(ChessGame.TeamColor side, int move) {
+        return side.ordinal() * 64 * 64 + Move.from(move) * 64 + Move.to(move);
+    }
+
+    /** Moves the best remaining move of the stage to the front and returns it, skipping moves already played. */
+    private int pickBest() {
+        while (index < moves.size()) {
+            int best = index;
+            for (int i = index + 1; i < moves.size(); i++) {
+                if (scores[i] > scores[best]) {
+                    best = i;
+                }
+            }
+            int move = moves.get(best);
+            moves.set(best, moves.get(index));
+            scores[best] = scores[index];
+            index++;
+            if (!alreadyPlayed(move)) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    private boolean alreadyPlayed(int move) {
+        if (Move.sameMove(move, hashMove)) {
+            return true;
+        }
+        for (int killer : killersPlayed) {
+            if (Move.sameMove(move, killer)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scoreCaptures() {
+        prepareScores();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score = 0;
+            if (Move.isCapture(move)) {
+                ChessPiece victim = game.getBoard().getPiece(Move.to(move));
+                int victimValue = Evaluation.pieceValue(victim == null
+                        ? ChessPiece.PieceType.PAWN
+                        : victim.getPieceType());
+                int attackerValue = Evaluation.pieceValue(game.getBoard().getPiece(Move.from(move)).getPieceType());
+                score += victimValue * 10 - attackerValue / 10;
+            }
+            if (Move.isPromotion(move)) {
+                score += Evaluation.pieceValue(Move.promotion(move));
+            }
+            scores[i] = score;
+        }
+    }
+
+    private void scoreQuiets() {
+        prepareScores();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        for (int i = 0; i < moves.size(); i++) {
+            scores[i] = history[historyIndex(side, moves.get(i))];
+        }
+    }
+
+    private void prepareScores() {
+        index = 0;
+        if (scores.length < moves.size()) {
+            scores = new int[moves.size()];
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package chess.search;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lazy SMP: several {@link Search} workers search the same root position at once and
+ * share one {@link TranspositionTable}, so each profits from the positions the others
+ * have already resolved.
+ * <p>
+ * Every other helper starts its iterations one ply deeper, which spreads the workers
+ * over different parts of the tree. The first worker is the main one: when it finishes,
+ * the helpers are stopped, and the result from the deepest completed iteration of any
+ * worker is returned, preferring the main worker on a tie. Node counts are summed over
+ * all workers.
+ * <p>
+ * Workers run on an executor so engine work stays off the caller's threads; it needs at
+ * least {@code threads} free threads for the workers to run in parallel. One search runs
+ * at a time per instance.
+ */
+public final class ParallelSearch implements AutoCloseable {
+
+    private final TranspositionTable table;
+    private final ExecutorService pool;
+    private final boolean ownsPool;
+    private final AtomicBoolean stopRequested = new AtomicBoolean();
+    private final List<Search> workers = new ArrayList<>();
+
+    /** Creates a search with its own table and a pool of daemon threads, released by {@link #close()}. */
+    public ParallelSearch(int threads, int hashMegabytes) {
+        this(threads, new TranspositionTable(hashMegabytes), newPool(threads), true);
+    }
+
+    /** Creates a search that runs its workers on the caller's pool, which {@link #close()} leaves running. */
+    public ParallelSearch(int threads, TranspositionTable table, ExecutorService pool) {
+        this(threads, table, pool, false);
+    }
+
+    private ParallelSearch(int threads, TranspositionTable table, ExecutorService pool, boolean ownsPool) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Parallel search needs at least one thread");
+        }
+        this.table = table;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Search(table, stopRequested, i % 2));
+        }
+    }
+
+    public int threads() { return workers.size(); }
+
+    public TranspositionTable table() { return table; }
+
+    /** Asks a running {@link #search} to finish as soon as possible. */
+    public void stop() { stopRequested.set(true); }
+
+    /**
+     * Searches the position with every worker. The game passed in is not modified.
+     *
+     * @throws IllegalStateException if a worker fails
+     */
+    public synchronized SearchResult search(ChessGame position, SearchLimits limits) {
+        long start = System.nanoTime();
+        stopRequested.set(false);
+        // Copied here so the board is fully indexed before the workers read it concurrently.
+        ChessGame root = position.copy();
+
+        List<Future<SearchResult>> futures = new ArrayList<>(workers.size());
+        for (Search worker : workers) {
+            futures.add(pool.submit(() -> worker.search(root, limits)));
+        }
+
+        SearchResult best = null;
+        long nodes = 0;
+        try {
+            best = futures.get(0).get();
+            nodes = best.nodes();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search worker failed", e.getCause());
+        } finally {
+            stopRequested.set(true);
+        }
+
+        for (int i = 1; i < futures.size(); i++) {
+            SearchResult result = helperResult(futures.get(i));
+            if (result == null) {
+                continue;
+            }
+            nodes += result.nodes();
+            if (best == null || result.depth() > best.depth()) {
+                best = result;
+            }
+        }
+        if (best == null) {
+            throw new IllegalStateException("Search was interrupted before any worker finished");
+        }
+        return new SearchResult(best.move(), best.score(), best.depth(), nodes, System.nanoTime() - start, best.line());
+    }
+
+    private static SearchResult helperResult(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (CancellationException | ExecutionException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    private static ExecutorService newPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "search-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package chess.search;
+
+import chess.ChessBoard;
+
+/**
+ * Direct-mapped cache of pawn-structure scores keyed by {@link ChessBoard#getPawnKey()}.
+ * Pawns move rarely compared with the other pieces, so almost every evaluation finds its
+ * pawn terms here instead of walking the pawns again.
+ * <p>
+ * Scores are packed middlegame-high, endgame-low into one long (see {@link #midgame} and
+ * {@link #endgame}). An empty slot has key 0, which is also the key of a board with no
+ * pawns, whose structure score is 0, so empty slots never need a separate flag.
+ * <p>
+ * Not thread-safe; each {@link Evaluation} owns one.
+ */
+final class PawnHashTable {
+
+    private final long[] keys;
+    private final long[] scores;
+    private final int indexMask;
+    private long probes;
+    private long hits;
+
+    /** @param entries number of slots, rounded down to a power of two */
+    PawnHashTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(entries, 1));
+        keys = new long[size];
+        scores = new long[size];
+        indexMask = size - 1;
+    }
+
+    /** @return the packed pawn-structure score of the board, computed and cached on a miss */
+    long score(ChessBoard board) {
+        long key = board.getPawnKey();
+        int index = (int) key & indexMask;
+        probes++;
+        if (keys[index] == key) {
+            hits++;
+            return scores[index];
+        }
+        long score = Evaluation.pawnStructure(board);
+        keys[index] = key;
+        scores[index] = score;
+        return score;
+    }
+
+    static long pack(int midgame, int endgame) { return ((long) midgame << 32) | (endgame & 0xFFFFFFFFL); }
+
+    static int midgame(long score) { return (int) (score >> 32); }
+
+    static int endgame(long score) { return (int) score; }
+
+    /** @return the fraction of lookups answered from the cache */
+    double hitRate() { return probes == 0 ? 0 : (double) hits / probes; }
+}
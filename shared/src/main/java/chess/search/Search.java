@@ -0,0 +1,357 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.Move;
+import chess.MoveList;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Iterative-deepening negamax search with alpha-beta pruning and a quiescence search over
+ * captures, run on a copy of the game through {@link ChessGame#applyMove(int)} and
+ * {@link ChessGame#unmakeMove()}.
+ * <p>
+ * Each iteration searches one ply deeper than the last and tries the previous principal
+ * variation first, so the best line so far is proven or refuted quickly. When a depth, node
+ * or time limit from {@link SearchLimits} runs out the unfinished iteration is thrown away
+ * and the deepest completed one is returned.
+ * <p>
+ * Results are kept in a {@link TranspositionTable}, which cuts off positions already
+ * searched deeply enough and supplies the best move found earlier to try first. Moves come
+ * from a {@link MovePicker}, which generates captures before quiet moves and tries killer
+ * moves and moves with a good history between them.
+ * <p>
+ * A Search reuses its buffers between calls and is not thread-safe; use one per thread.
+ * {@link #stop()} may be called from any thread.
+ * <p>
+ * Usage: {@code java -cp shared/target/classes chess.search.Search [depth [fen]]}.
+ */
+public final class Search {
+
+    public static final int MAX_PLY = 128;
+    /** Score for giving mate at the root; mate in n plies scores {@code MATE - n}. */
+    public static final int MATE = 32000;
+    /** Scores at or beyond this magnitude are forced mates. */
+    public static final int MATE_BOUND = MATE - MAX_PLY;
+
+    private static final int INFINITY = MATE + 1;
+    /** The clock and stop flag are checked once per this many nodes, plus one. */
+    private static final int CHECK_INTERVAL = 1023;
+    /** Killer moves remembered per ply. */
+    static final int KILLERS = 2;
+    /** History scores are halved once any reaches this, so recent cutoffs weigh more. */
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final MoveList rootMoves = new MoveList();
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private final int[][] killers = new int[MAX_PLY][KILLERS];
+    /** Butterfly history: how often each quiet move caused a cutoff, weighted by depth. */
+    private final int[] history = new int[2 * 64 * 64];
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    /** Position keys along the current line, for repetition detection. */
+    private final long[] keys = new long[MAX_PLY + 1];
+    private final Evaluation evaluation = new Evaluation();
+    private final TranspositionTable table;
+    private final AtomicBoolean stopRequested;
+    /** Set when the stop flag belongs to this search alone, so each call can clear it. */
+    private final boolean ownsStopFlag;
+    /** Plies skipped before the first iteration; helper threads in a {@link ParallelSearch} use 1 for diversity. */
+    private final int depthOffset;
+
+    private ChessGame game;
+    private int[] previousPv = new int[0];
+    private boolean followPv;
+
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+
+    /** Creates a search with its own 16 MB transposition table. */
+    public Search() { this(new TranspositionTable(16)); }
+
+    /** Creates a search that reads and writes the given table, which may be shared with other searches. */
+    public Search(TranspositionTable table) { this(table, new AtomicBoolean(), true, 0); }
+
+    /** A worker for {@link ParallelSearch}, stopped through a flag shared by all workers of one search. */
+    Search(TranspositionTable table, AtomicBoolean stopRequested, int depthOffset) {
+        this(table, stopRequested, false, depthOffset);
+    }
+
+    private Search(TranspositionTable table, AtomicBoolean stopRequested, boolean ownsStopFlag, int depthOffset) {
+        this.table = table;
+        this.stopRequested = stopRequested;
+        this.ownsStopFlag = ownsStopFlag;
+        this.depthOffset = depthOffset;
+        for (int i = 0; i < MAX_PLY; i++) {
+            pickers[i] = new MovePicker(history);
+        }
+    }
+
+    public TranspositionTable table() { return table; }
+
+    /** Asks a running {@link #search} to finish as soon as possible. */
+    public void stop() { stopRequested.set(true); }
+
+    /**
+     * Searches the position for the side to move. The game passed in is not modified.
+     *
+     * @return the result of the deepest completed iteration
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits) {
+        long start = System.nanoTime();
+        game = position.copy();
+        nodes = 0;
+        nodeLimit = limits.maxNodes() > 0 ? limits.maxNodes() : Long.MAX_VALUE;
+        deadline = limits.maxTimeMillis() > 0 ? start + limits.maxTimeMillis() * 1_000_000L : Long.MAX_VALUE;
+        aborted = false;
+        if (ownsStopFlag) {
+            stopRequested.set(false);
+        }
+        keys[0] = game.getZobristKey();
+        table.newSearch();
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, Move.NONE);
+        }
+        ageHistory();
+
+        rootMoves.clear();
+        game.generateLegalMoves(rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = game.isInCheck(game.getTeamTurn()) ? -MATE : 0;
+            return new SearchResult(Move.NONE, score, 0, 0, System.nanoTime() - start, new int[0]);
+        }
+
+        int[] bestLine = {rootMoves.get(0)};
+        int bestScore = 0;
+        int completedDepth = 0;
+        previousPv = new int[0];
+
+        for (int depth = Math.min(1 + depthOffset, limits.maxDepth()); depth <= limits.maxDepth(); depth++) {
+            followPv = true;
+            int score = negamax(depth, -INFINITY, INFINITY, 0);
+            if (aborted) {
+                break;
+            }
+            bestScore = score;
+            completedDepth = depth;
+            bestLine = Arrays.copyOf(pv[0], pvLength[0]);
+            previousPv = bestLine;
+            if (Math.abs(score) >= MATE_BOUND) {
+                break;
+            }
+        }
+        return new SearchResult(bestLine[0], bestScore, completedDepth, nodes, System.nanoTime() - start, bestLine);
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if (ply > 0 && isRepetition(ply)) {
+            return 0;
+        }
+        if (depth <= 0) {
+            return quiescence(alpha, beta, ply);
+        }
+        if (outOfBudget()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluation.evaluate(game);
+        }
+
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        if (inCheck) {
+            depth++;
+        }
+
+        long key = keys[ply];
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int pvMove = followPv && ply < previousPv.length ? previousPv[ply] : Move.NONE;
+        boolean onPv = followPv && pvMove != Move.NONE;
+        MovePicker picker = pickers[ply];
+        picker.reset(game, pvMove != Move.NONE ? pvMove : hashMove, killers[ply], false);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        int searched = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            followPv = onPv && searched == 0 && Move.sameMove(move, pvMove);
+            searched++;
+
+            game.applyMove(move);
+            keys[ply + 1] = game.getZobristKey();
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            game.unmakeMove();
+
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+                            rememberCutoff(move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (searched == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT
+                : TranspositionTable.UPPER;
+        table.store(key, bound == TranspositionTable.UPPER ? Move.NONE : bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Searches captures and promotions only, until the position is quiet. Captures that lose
+     * material by static exchange are skipped. A side in check cannot stand pat, so it
+     * searches every evasion instead and is mated if there is none.
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if (outOfBudget()) {
+            return 0;
+        }
+
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        int best = -INFINITY;
+        if (!inCheck || ply >= MAX_PLY - 1) {
+            int standPat = evaluation.evaluate(game);
+            if (standPat >= beta || ply >= MAX_PLY - 1) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+            best = standPat;
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.reset(game, Move.NONE, killers[ply], !inCheck);
+
+        int searched = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            searched++;
+
+            game.applyMove(move);
+            keys[ply + 1] = game.getZobristKey();
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            game.unmakeMove();
+
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (inCheck && searched == 0) {
+            return -MATE + ply;
+        }
+        return best;
+    }
+
+    /** Counts a node and checks the limits, setting {@link #aborted} once any is hit. */
+    private boolean outOfBudget() {
+        if (++nodes >= nodeLimit
+                || ((nodes & CHECK_INTERVAL) == 0 && (stopRequested.get() || System.nanoTime() >= deadline))) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /** Mate scores are stored as distance from the node rather than from the root. */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        return score <= -MATE_BOUND ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        return score <= -MATE_BOUND ? score + ply : score;
+    }
+
+    /** A position seen earlier on the current line with the same side to move is scored as a draw. */
+    private boolean isRepetition(int ply) {
+        for (int i = ply - 2; i >= 0; i -= 2) {
+            if (keys[i] == keys[ply]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updatePv(int ply, int move) {
+        int[] line = pv[ply];
+        line[0] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], 0, line, 1, childLength);
+        pvLength[ply] = childLength + 1;
+    }
+
+    /** Records a quiet move that failed high as a killer for the ply and credits its history. */
+    private void rememberCutoff(int move, int depth, int ply) {
+        int[] plyKillers = killers[ply];
+        if (!Move.sameMove(plyKillers[0], move)) {
+            System.arraycopy(plyKillers, 0, plyKillers, 1, KILLERS - 1);
+            plyKillers[0] = move;
+        }
+        int index = MovePicker.historyIndex(game.getTeamTurn(), move);
+        history[index] += depth * depth;
+        if (history[index] >= HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    private void ageHistory() {
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        String fen = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length)) : Fen.START;
+        Search search = new Search();
+        System.out.println(search.search(Fen.parse(fen), SearchLimits.depth(depth)));
+        System.out.printf("hash hit rate %.1f%%, %d permille full%n",
+                search.table().hitRate() * 100, search.table().fillPermille());
+    }
+}
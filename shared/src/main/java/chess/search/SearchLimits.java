@@ -0,0 +1,29 @@
+package chess.search;
+
+/**
+ * How far a {@link Search} may go. The search stops at whichever limit is reached
+ * first; a node or time limit of 0 means no limit.
+ *
+ * @param maxDepth      deepest iteration to start, in plies
+ * @param maxNodes      nodes to visit before stopping
+ * @param maxTimeMillis wall-clock time to search for
+ */
+public record SearchLimits(int maxDepth, long maxNodes, long maxTimeMillis) {
+
+    public SearchLimits {
+        if (maxDepth < 1 || maxDepth >= Search.MAX_PLY) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + (Search.MAX_PLY - 1));
+        }
+        if (maxNodes < 0 || maxTimeMillis < 0) {
+            throw new IllegalArgumentException("Node and time limits cannot be negative");
+        }
+    }
+
+    public static SearchLimits depth(int maxDepth) { return new SearchLimits(maxDepth, 0, 0); }
+
+    public static SearchLimits time(long maxTimeMillis) { return new SearchLimits(Search.MAX_PLY - 1, 0, maxTimeMillis); }
+
+    public SearchLimits withNodes(long maxNodes) { return new SearchLimits(maxDepth, maxNodes, maxTimeMillis); }
+
+    public SearchLimits withTime(long maxTimeMillis) { return new SearchLimits(maxDepth, maxNodes, maxTimeMillis); }
+}
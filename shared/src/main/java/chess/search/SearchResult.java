@@ -0,0 +1,49 @@
+package chess.search;
+
+import chess.ChessMove;
+import chess.Move;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a {@link Search}: the best move and score of the deepest completed iteration.
+ *
+ * @param move         best move in {@link Move} encoding, or {@link Move#NONE} if the side to move has none
+ * @param score        centipawns from the side to move's point of view; see {@link Search#MATE}
+ * @param depth        deepest completed iteration, 0 if none completed
+ * @param nodes        positions visited, including quiescence
+ * @param elapsedNanos wall-clock time taken
+ * @param line         principal variation, starting with {@code move}
+ */
+public record SearchResult(int move, int score, int depth, long nodes, long elapsedNanos, int[] line) {
+
+    /** @return the best move, or null if the side to move is checkmated or stalemated */
+    public ChessMove bestMove() { return move == Move.NONE ? null : Move.toChessMove(move); }
+
+    public List<ChessMove> principalVariation() {
+        List<ChessMove> moves = new ArrayList<>(line.length);
+        for (int m : line) {
+            moves.add(Move.toChessMove(m));
+        }
+        return moves;
+    }
+
+    /** @return true if the score is a forced mate for either side */
+    public boolean isMate() { return Math.abs(score) >= Search.MATE_BOUND; }
+
+    public long nodesPerSecond() { return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos; }
+
+    @Override
+    public String toString() {
+        StringBuilder pv = new StringBuilder();
+        for (int m : line) {
+            pv.append(' ').append(Move.toString(m));
+        }
+        String scoreText = isMate()
+                ? "mate " + (score > 0 ? (Search.MATE - score + 1) / 2 : -(Search.MATE + score) / 2)
+                : "cp " + score;
+        return String.format("depth %d score %s nodes %,d time %.3fs nps %,d pv%s",
+                depth, scoreText, nodes, elapsedNanos / 1e9, nodesPerSecond(), pv);
+    }
+}
@@ -0,0 +1,134 @@
+package chess.search;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size hash table of search results keyed by {@link chess.ChessGame#getZobristKey()},
+ * backed by a single {@code long[]} so it can be shared by several search threads without
+ * locks.
+ * <p>
+ * Each entry is two longs: the key XOR the data, then the data. The data word packs the
+ * best move, score, depth, bound type and the search generation that wrote it. A reader
+ * accepts an entry only if the two words still XOR back to its key, so an entry torn by
+ * two threads writing at once reads as a miss instead of returning another position's
+ * result.
+ * <pre>
+ *  bits  0-18  best move ({@link chess.Move} encoding)
+ *  bits 19-34  score, signed
+ *  bits 35-42  depth
+ *  bits 43-44  bound ({@link #LOWER}, {@link #UPPER} or {@link #EXACT})
+ *  bits 45-52  generation
+ * </pre>
+ */
+public final class TranspositionTable {
+
+    /** The score is at least the stored value (the search failed high). */
+    public static final int LOWER = 1;
+    /** The score is at most the stored value (no move raised alpha). */
+    public static final int UPPER = 2;
+    public static final int EXACT = 3;
+
+    private static final int ENTRY_LONGS = 2;
+    private static final int SAMPLE_SIZE = 1000;
+
+    private final long[] entries;
+    private final long indexMask;
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private volatile int generation;
+
+    /**
+     * @param megabytes memory to use; rounded down to a power-of-two number of entries
+     * @throws IllegalArgumentException if less than 1 MB is requested
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Transposition table needs at least 1 MB");
+        }
+        long entryCount = Long.highestOneBit((long) megabytes * 1024 * 1024 / (ENTRY_LONGS * Long.BYTES));
+        entryCount = Math.min(entryCount, Integer.MAX_VALUE / ENTRY_LONGS + 1L);
+        entries = new long[(int) (entryCount * ENTRY_LONGS)];
+        indexMask = entryCount - 1;
+    }
+
+    /** @return the packed data stored for the key, or 0 if there is none */
+    public long probe(long key) {
+        probes.increment();
+        int index = index(key);
+        long data = entries[index + 1];
+        if (data != 0 && (entries[index] ^ data) == key) {
+            hits.increment();
+            return data;
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a result, replacing the slot's entry unless it holds the same position searched
+     * deeper during the current search.
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = index(key);
+        long old = entries[index + 1];
+        if (old != 0 && (entries[index] ^ old) == key && generation(old) == (generation & 0xFF)
+                && depth(old) > depth && bound != EXACT) {
+            return;
+        }
+        if (move == 0 && old != 0 && (entries[index] ^ old) == key) {
+            move = move(old);
+        }
+        long data = (move & 0x7FFFFL)
+                | ((score & 0xFFFFL) << 19)
+                | ((long) Math.min(depth, 0xFF) << 35)
+                | ((long) bound << 43)
+                | ((long) (generation & 0xFF) << 45);
+        entries[index] = key ^ data;
+        entries[index + 1] = data;
+    }
+
+    public static int move(long data) { return (int) (data & 0x7FFFF); }
+
+    public static int score(long data) { return (short) (data >>> 19); }
+
+    public static int depth(long data) { return (int) ((data >>> 35) & 0xFF); }
+
+    public static int bound(long data) { return (int) ((data >>> 43) & 3); }
+
+    private static int generation(long data) { return (int) ((data >>> 45) & 0xFF); }
+
+    /** Marks the start of a new search, so entries from earlier searches are replaced first. */
+    public void newSearch() { generation++; }
+
+    public void clear() {
+        Arrays.fill(entries, 0L);
+        probes.reset();
+        hits.reset();
+    }
+
+    public long capacity() { return indexMask + 1; }
+
+    public long probes() { return probes.sum(); }
+
+    public long hits() { return hits.sum(); }
+
+    public double hitRate() {
+        long total = probes.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    /** @return how full the table is in permille, sampled from the first entries written this search */
+    public int fillPermille() {
+        int sample = (int) Math.min(SAMPLE_SIZE, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = entries[i * ENTRY_LONGS + 1];
+            if (data != 0 && generation(data) == (generation & 0xFF)) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    private int index(long key) { return (int) (key & indexMask) * ENTRY_LONGS; }
+}
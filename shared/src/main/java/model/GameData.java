@@ -6,4 +6,10 @@ public record GameData(
         String whiteUsername,
         String blackUsername,
         String gameName,
-        ChessGame game) { }
+        ChessGame game) {
+
+    /** @return a copy with its own ChessGame, safe to read while this one keeps changing */
+    public GameData copy() {
+        return new GameData(gameID, whiteUsername, blackUsername, gameName, game == null ? null : game.copy());
+    }
+}
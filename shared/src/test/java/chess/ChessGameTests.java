@@ -0,0 +1,66 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.*;
+
+public class ChessGameTests {
+
+    @Test
+    void statusAfterFoolsMate() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 6, 3, 6));
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(2, 7, 4, 7));
+        game.updateStatusAfterMove();
+        assertEquals(ChessGame.Status.ONGOING, game.getStatus());
+
+        game.makeMove(move(8, 4, 4, 8));
+        game.updateStatusAfterMove();
+        assertEquals(ChessGame.Status.CHECKMATE, game.getStatus());
+    }
+
+    @Test
+    void statusSeesBoardEditedAfterGeneration() {
+        ChessGame game = Fen.parse("7k/8/6Q1/8/8/8/8/K7 b - - 0 1");
+        game.updateStatusAfterMove();
+        assertEquals(ChessGame.Status.STALEMATE, game.getStatus());
+
+        game.getBoard().addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        game.updateStatusAfterMove();
+        assertEquals(ChessGame.Status.CHECKMATE, game.getStatus());
+    }
+
+    @Test
+    void offBoardSquaresDoNotWrapOntoTheBoard() {
+        ChessGame game = new ChessGame();
+        // Row 9, column 5 would encode as square 68, which wraps onto e1.
+        ChessMove wrapped = move(2, 5, 9, 5);
+
+        assertThrows(InvalidMoveException.class, () -> game.makeMove(wrapped));
+        assertThrows(InvalidMoveException.class, () -> game.makeMove(move(0, 5, 3, 5)));
+        assertNull(game.validMoves(new ChessPosition(9, 5)));
+        assertThrows(IllegalArgumentException.class, () -> game.applyMove(wrapped));
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    void gameStoredWithoutCastlingRightsDerivesThemFromTheBoard() {
+        Gson gson = new Gson();
+        ChessGame moved = Fen.parse("r3k2r/8/8/8/8/8/8/R3K1R1 w Qkq - 0 1");
+        JsonObject stored = gson.toJsonTree(moved).getAsJsonObject();
+        stored.remove("castlingRights");
+
+        ChessGame loaded = gson.fromJson(stored, ChessGame.class);
+
+        assertEquals(moved.getCastlingRights(), loaded.getCastlingRights());
+        assertFalse(loaded.validMoves(new ChessPosition(1, 5)).contains(move(1, 5, 1, 7)));
+        assertTrue(loaded.validMoves(new ChessPosition(1, 5)).contains(move(1, 5, 1, 3)));
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
@@ -0,0 +1,69 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+
+public class PerftTests {
+
+    private static final int MAX_DEPTH = 4;
+
+    @Test
+    void referencePositionsMatchPublishedCounts() {
+        for (Perft.Reference reference : Perft.REFERENCE_POSITIONS) {
+            for (int depth = 1; depth <= Math.min(MAX_DEPTH, reference.nodes().length); depth++) {
+                assertEquals(reference.nodes()[depth - 1], Perft.perft(reference.fen(), depth),
+                        reference.name() + " at depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    void divideSumsToCount() {
+        Perft perft = new Perft(Fen.parse(Fen.START), 3);
+        long total = perft.divide(3).values().stream().mapToLong(Long::longValue).sum();
+
+        assertEquals(20, perft.divide(3).size());
+        assertEquals(perft.count(3), total);
+    }
+
+    @Test
+    void countLeavesPositionUnchanged() {
+        ChessGame game = Fen.parse(Perft.REFERENCE_POSITIONS.get(1).fen());
+        ChessGame before = game.copy();
+
+        new Perft(game, 3).count(3);
+
+        assertEquals(before, game);
+    }
+
+    @Test
+    void zobristKeyMatchesRecomputedKey() throws InvalidMoveException {
+        ChessGame game = Fen.parse(Fen.START);
+        long start = game.getZobristKey();
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals(Fen.parse(Fen.toFen(game)).getZobristKey(), game.getZobristKey());
+        assertNotEquals(start, game.getZobristKey());
+
+        game.unmakeMove();
+        assertEquals(start, game.getZobristKey());
+    }
+
+    @Test
+    void fenRoundTrips() {
+        String fen = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 b - - 0 1";
+        assertEquals(fen, Fen.toFen(Fen.parse(fen)));
+    }
+
+    @Test
+    void fenRoundTripsCastlingAndEnPassant() {
+        String fen = "r3k2r/8/8/8/3pP3/8/8/R3K3 b Qkq e3 0 1";
+        assertEquals(fen, Fen.toFen(Fen.parse(fen)));
+    }
+
+    @Test
+    void fenRejectsShortRow() {
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/7 w - - 0 1"));
+    }
+}
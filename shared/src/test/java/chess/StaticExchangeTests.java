@@ -0,0 +1,53 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+
+public class StaticExchangeTests {
+
+    @Test
+    void pawnTakesDefendedKnight() {
+        ChessBoard board = Fen.parse("4k3/8/2p5/3n4/4P3/8/8/4K3 w - - 0 1").getBoard();
+
+        assertEquals(320 - 100, board.staticExchange(capture(28, 35)));
+    }
+
+    @Test
+    void rookTakesDefendedPawnLoses() {
+        ChessBoard board = Fen.parse("4r1k1/8/8/4p3/8/8/4R3/6K1 w - - 0 1").getBoard();
+
+        assertEquals(100 - 500, board.staticExchange(capture(12, 36)));
+    }
+
+    @Test
+    void rookBehindRookXraysThroughTheExchange() {
+        ChessBoard board = Fen.parse("4r1k1/8/8/4p3/8/8/4R3/4R1K1 w - - 0 1").getBoard();
+
+        assertEquals(100, board.staticExchange(capture(12, 36)));
+    }
+
+    @Test
+    void kingDoesNotRecaptureIntoAttack() {
+        ChessBoard board = Fen.parse("8/8/8/3k4/4p3/8/4R3/4R1K1 w - - 0 1").getBoard();
+
+        assertEquals(100, board.staticExchange(capture(12, 28)));
+    }
+
+    @Test
+    void enPassantCaptureWinsAPawn() {
+        ChessBoard board = Fen.parse("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1").getBoard();
+
+        assertEquals(100, board.staticExchange(Move.of(36, 43, Move.CAPTURE | Move.EN_PASSANT)));
+    }
+
+    @Test
+    void hangingPiecesAreTheOnesLostToACapture() {
+        ChessBoard board = Fen.parse("4k3/8/2n5/1P1b4/8/8/8/3RK3 b - - 0 1").getBoard();
+
+        assertEquals(Bitboards.bit(42) | Bitboards.bit(35), board.getHangingPieces(ChessGame.TeamColor.BLACK));
+        assertEquals(0L, board.getHangingPieces(ChessGame.TeamColor.WHITE));
+    }
+
+    private static int capture(int from, int to) { return Move.of(from, to, Move.CAPTURE); }
+}
@@ -0,0 +1,48 @@
+package chess.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+public class EvaluationTests {
+
+    @Test
+    void startingPositionIsLevel() {
+        assertEquals(0, new Evaluation().evaluate(Fen.parse(Fen.START)));
+    }
+
+    @Test
+    void mirroredPositionScoresTheSameForTheSideToMove() {
+        Evaluation evaluation = new Evaluation();
+        int white = evaluation.evaluate(Fen.parse("4k3/pp6/8/8/3P4/2N5/6PP/4K3 w - - 0 1"));
+        int black = evaluation.evaluate(Fen.parse("4k3/6pp/2n5/3p4/8/8/PP6/4K3 b - - 0 1"));
+
+        assertEquals(white, black);
+        assertTrue(white > 0);
+    }
+
+    @Test
+    void incrementalTermsMatchRebuiltBoard() {
+        ChessGame game = Fen.parse(Perft.REFERENCE_POSITIONS.get(1).fen());
+        ChessBoard start = game.getBoard().copy();
+        MoveList moves = new MoveList();
+
+        for (int ply = 0; ply < 6; ply++) {
+            moves.clear();
+            game.generateLegalMoves(moves);
+            game.applyMove(moves.get(ply * 7 % moves.size()));
+
+            ChessBoard rebuilt = Fen.parse(Fen.toFen(game)).getBoard();
+            assertEquals(rebuilt.getMidgameScore(), game.getBoard().getMidgameScore());
+            assertEquals(rebuilt.getEndgameScore(), game.getBoard().getEndgameScore());
+            assertEquals(rebuilt.getPhase(), game.getBoard().getPhase());
+            assertEquals(rebuilt.getPawnKey(), game.getBoard().getPawnKey());
+        }
+        for (int ply = 0; ply < 6; ply++) {
+            game.unmakeMove();
+        }
+        assertEquals(start.getMidgameScore(), game.getBoard().getMidgameScore());
+        assertEquals(start.getPawnKey(), game.getBoard().getPawnKey());
+    }
+}
@@ -0,0 +1,43 @@
+package chess.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import chess.*;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.*;
+
+public class MovePickerTests {
+
+    @Test
+    void picksEveryLegalMoveOnceHashMoveFirst() {
+        ChessGame game = Fen.parse(Perft.REFERENCE_POSITIONS.get(1).fen());
+        MoveList legal = new MoveList();
+        game.generateLegalMoves(legal);
+        int hashMove = legal.get(legal.size() - 1);
+        int[] killers = {legal.get(0), Move.NONE};
+
+        MovePicker picker = new MovePicker(new int[2 * 64 * 64]);
+        picker.reset(game, hashMove, killers, false);
+        Set<Integer> picked = new HashSet<>();
+        int first = picker.next();
+        picked.add(first);
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            assertTrue(picked.add(move), Move.toString(move) + " picked twice");
+        }
+
+        assertEquals(hashMove, first);
+        assertEquals(legal.size(), picked.size());
+    }
+
+    @Test
+    void capturesComeMostValuableVictimFirst() {
+        ChessGame game = Fen.parse("4k3/8/2q1n3/3P4/8/8/8/4K3 w - - 0 1");
+        MovePicker picker = new MovePicker(new int[2 * 64 * 64]);
+        picker.reset(game, Move.NONE, new int[] {Move.NONE, Move.NONE}, true);
+
+        assertEquals("d5c6", Move.toString(picker.next()));
+        assertEquals("d5e6", Move.toString(picker.next()));
+        assertEquals(Move.NONE, picker.next());
+    }
+}
@@ -0,0 +1,35 @@
+package chess.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+public class ParallelSearchTests {
+
+    @Test
+    void findsBackRankMateWithSharedTable() {
+        try (ParallelSearch search = new ParallelSearch(4, 4)) {
+            SearchResult result = search.search(Fen.parse("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1"), SearchLimits.depth(4));
+
+            assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+            assertTrue(result.isMate());
+            assertTrue(search.table().probes() > 0);
+        }
+    }
+
+    @Test
+    void returnsWithinTimeLimit() {
+        try (ParallelSearch search = new ParallelSearch(2, 4)) {
+            ChessGame game = Fen.parse(Perft.REFERENCE_POSITIONS.get(1).fen());
+            ChessGame before = game.copy();
+
+            SearchResult result = search.search(game, SearchLimits.time(200));
+
+            assertNotNull(result.bestMove());
+            assertTrue(result.depth() >= 1);
+            assertTrue(result.elapsedNanos() < 2_000_000_000L);
+            assertEquals(before, game);
+        }
+    }
+}
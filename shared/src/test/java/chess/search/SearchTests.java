@@ -0,0 +1,52 @@
+package chess.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+public class SearchTests {
+
+    @Test
+    void findsBackRankMate() {
+        SearchResult result = new Search().search(Fen.parse("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1"), SearchLimits.depth(3));
+
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertTrue(result.isMate());
+        assertEquals(Search.MATE - 1, result.score());
+    }
+
+    @Test
+    void winsUndefendedQueen() {
+        SearchResult result = new Search().search(Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1"), SearchLimits.depth(2));
+
+        assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null), result.bestMove());
+        assertTrue(result.score() > 0);
+    }
+
+    @Test
+    void stopsAtNodeLimit() {
+        SearchResult result = new Search().search(Fen.parse(Fen.START), SearchLimits.depth(20).withNodes(5_000));
+
+        assertTrue(result.nodes() <= 5_000);
+        assertNotNull(result.bestMove());
+    }
+
+    @Test
+    void leavesGameUnchanged() {
+        ChessGame game = Fen.parse(Perft.REFERENCE_POSITIONS.get(1).fen());
+        ChessGame before = game.copy();
+
+        new Search().search(game, SearchLimits.depth(3));
+
+        assertEquals(before, game);
+    }
+
+    @Test
+    void noMoveWhenStalemated() {
+        SearchResult result = new Search().search(Fen.parse("7k/8/6Q1/8/8/8/8/K7 b - - 0 1"), SearchLimits.depth(4));
+
+        assertNull(result.bestMove());
+        assertEquals(0, result.score());
+    }
+}
@@ -0,0 +1,49 @@
+package chess.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import chess.Move;
+import org.junit.jupiter.api.*;
+
+public class TranspositionTableTests {
+
+    @Test
+    void storedEntryRoundTrips() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.of(12, 28, Move.DOUBLE_PUSH);
+        table.store(0x1234_5678_9ABC_DEF0L, move, -Search.MATE + 3, 7, TranspositionTable.UPPER);
+
+        long data = table.probe(0x1234_5678_9ABC_DEF0L);
+        assertEquals(move, TranspositionTable.move(data));
+        assertEquals(-Search.MATE + 3, TranspositionTable.score(data));
+        assertEquals(7, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(data));
+    }
+
+    @Test
+    void otherKeyInSameSlotMisses() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 42;
+        table.store(key, Move.NONE, 10, 1, TranspositionTable.EXACT);
+
+        assertNotEquals(0, table.probe(key));
+        assertEquals(0, table.probe(key + table.capacity()));
+        assertEquals(0.5, table.hitRate(), 1e-9);
+    }
+
+    @Test
+    void keepsDeeperEntryForSamePosition() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.newSearch();
+        table.store(99, Move.NONE, 50, 6, TranspositionTable.LOWER);
+        table.store(99, Move.NONE, 20, 2, TranspositionTable.LOWER);
+
+        assertEquals(6, TranspositionTable.depth(table.probe(99)));
+    }
+
+    @Test
+    void sizeIsBudgetedInMegabytes() {
+        assertEquals(65536, new TranspositionTable(1).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+}